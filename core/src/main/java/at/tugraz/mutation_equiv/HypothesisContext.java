@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import at.tugraz.mutation_equiv.mutation.CriticalTransitionIndex;
+import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
+import at.tugraz.mutation_equiv.util.CompiledMealy;
+import net.automatalib.automata.transout.impl.FastMealy;
+import net.automatalib.automata.transout.impl.FastMealyState;
+import net.automatalib.util.automata.Automata;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.SimpleAlphabet;
+import net.automatalib.words.impl.Symbol;
+
+/**
+ * Information about the hypothesis of one round of learning, which is needed by
+ * several components, i.e. mutation operators, test-case generators,
+ * equivalence checkers and test-case selectors. It is created once per round by
+ * <code>RandomCoverageSelectionEQOracle</code> and passed to the components, so
+ * that it is computed only once. Everything except the compiled hypothesis is
+ * computed on demand.
+ * 
+ * Components should check via <code>isFor</code> that the context belongs to
+ * the machine they are working on, as they may also be used without oracle.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class HypothesisContext {
+
+	private final FastMealy<Symbol, String> hypothesis;
+	private final Alphabet<Symbol> inputAlphabet;
+	private final CompiledMealy compiledHypothesis;
+	private Alphabet<String> outputAlphabet = null;
+	private List<Word<Symbol>> stateCover = null;
+	private List<Word<Symbol>> characterizingSet = null;
+	private Map<Object, List<Word<Symbol>>> stateCharacterizingSets = null;
+	private List<MutantProducer> mutants = null;
+	private CriticalTransitionIndex critTransIndex = null;
+
+	public HypothesisContext(FastMealy<Symbol, String> hypothesis, Alphabet<Symbol> inputAlphabet) {
+		this.hypothesis = hypothesis;
+		this.inputAlphabet = inputAlphabet;
+		this.compiledHypothesis = CompiledMealy.of(hypothesis, inputAlphabet);
+	}
+
+	/**
+	 * @param machine
+	 *            some machine
+	 * @return true if the machine is the hypothesis of this context
+	 */
+	public boolean isFor(Object machine) {
+		return machine == hypothesis;
+	}
+
+	public FastMealy<Symbol, String> getHypothesis() {
+		return hypothesis;
+	}
+
+	public Alphabet<Symbol> getInputAlphabet() {
+		return inputAlphabet;
+	}
+
+	/**
+	 * @return the compiled hypothesis, which also stores shortest paths
+	 *         between states
+	 */
+	public CompiledMealy getCompiledHypothesis() {
+		return compiledHypothesis;
+	}
+
+	/**
+	 * @return outputs of the hypothesis ordered by the first input and then
+	 *         state producing them
+	 */
+	public synchronized Alphabet<String> getOutputAlphabet() {
+		if (outputAlphabet == null) {
+			Collection<FastMealyState<String>> allStates = hypothesis.getStates();
+			SimpleAlphabet<String> outputs = new SimpleAlphabet<>();
+			inputAlphabet.stream().flatMap(i -> allStates.stream().map(s -> hypothesis.getOutput(s, i)))
+					.distinct().forEach(outputs::add);
+			outputAlphabet = outputs;
+		}
+		return outputAlphabet;
+	}
+
+	public synchronized List<Word<Symbol>> getStateCover() {
+		if (stateCover == null) {
+			stateCover = new ArrayList<>(hypothesis.size());
+			Automata.cover(hypothesis, inputAlphabet, stateCover, null);
+		}
+		return stateCover;
+	}
+
+	public synchronized List<Word<Symbol>> getCharacterizingSet() {
+		if (characterizingSet == null) {
+			characterizingSet = new ArrayList<>();
+			Automata.characterizingSet(hypothesis, inputAlphabet, characterizingSet);
+		}
+		return characterizingSet;
+	}
+
+	/**
+	 * @return characterizing sets of the individual states
+	 */
+	public synchronized Map<Object, List<Word<Symbol>>> getStateCharacterizingSets() {
+		if (stateCharacterizingSets == null) {
+			stateCharacterizingSets = new HashMap<>();
+			for (FastMealyState<String> state : hypothesis.getStates()) {
+				List<Word<Symbol>> suffixSet = new ArrayList<>();
+				Automata.stateCharacterizingSet(hypothesis, inputAlphabet, state, suffixSet);
+				stateCharacterizingSets.put(state, suffixSet);
+			}
+		}
+		return stateCharacterizingSets;
+	}
+
+	/**
+	 * Sets the mutants used for test-case selection in this round.
+	 * 
+	 * @param mutants
+	 *            the mutants, which are identified by their position
+	 */
+	public synchronized void setMutants(List<MutantProducer> mutants) {
+		this.mutants = mutants;
+		this.critTransIndex = null;
+	}
+
+	public synchronized List<MutantProducer> getMutants() {
+		return mutants;
+	}
+
+	/**
+	 * @return index of the critical transitions of all mutants set via
+	 *         <code>setMutants</code>
+	 */
+	public synchronized CriticalTransitionIndex getCriticalTransitionIndex() {
+		if (critTransIndex == null && mutants != null)
+			critTransIndex = new CriticalTransitionIndex(compiledHypothesis,
+					mutants.toArray(new MutantProducer[mutants.size()]), column -> true);
+		return critTransIndex;
+	}
+}
@@ -19,6 +19,7 @@ package at.tugraz.mutation_equiv;
 
 import java.util.List;
 
+import at.tugraz.mutation_equiv.util.CompactBitSet;
 import net.automatalib.words.impl.Symbol;
 
 /**
@@ -26,23 +27,25 @@ import net.automatalib.words.impl.Symbol;
  * the indexes of the mutants killed by the test case are stored, as well as
  * a mutation score (ratio of killed mutants and overall number mutants)
  * 
+ * Note that the indexes of killed mutants are columns of the kill matrix 
+ * computed by the selector which evaluated the test, i.e. they are not the ids
+ * of the mutants.
+ * 
  * @author Martin Tappler
  *
  */
 public class MutationTestCase implements Comparable<MutationTestCase>, TestCase{
 	public double score = 0;
 	public List<Symbol> trace = null;
-	public int[] killedMutants;
+	public CompactBitSet killedMutants = CompactBitSet.empty();
 	public MutationTestCase(double score, List<Symbol> trace) {
 		super();
 		this.score = score;
 		this.trace = trace;
 	}
-	public MutationTestCase(double score, List<Symbol> trace,List<Integer> killedMutants) {
+	public MutationTestCase(double score, List<Symbol> trace,CompactBitSet killedMutants) {
 		this(score,trace);
-		this.killedMutants = new int[killedMutants.size()];
-		for(int i = 0; i < killedMutants.size(); i++)
-			this.killedMutants[i] = killedMutants.get(i);
+		this.killedMutants = killedMutants;
 	}
 	@Override
 	public int compareTo(MutationTestCase o) {
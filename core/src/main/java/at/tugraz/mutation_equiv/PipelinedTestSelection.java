@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
+import at.tugraz.mutation_equiv.test_selection.TestSelector;
+import at.tugraz.mutation_equiv.trace_gen.TraceGenerator;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.words.impl.Symbol;
+
+/**
+ * Provides the tests selected in one round of equivalence checking, while
+ * the candidate tests are generated in chunks by a background thread.
+ * 
+ * Generated chunks are passed through a bounded queue. Whenever all tests
+ * selected from a chunk have been provided, the next chunk is evaluated and
+ * a share of the test-suite size proportional to the chunk size is
+ * selected from it. Before evaluation, the selector is updated with the
+ * executed tests, so that mutants killed by tests of previous chunks are not
+ * targeted again. Hence, tests selected from early chunks can be executed
+ * while later chunks are still generated and at most
+ * <code>queueCapacity + 2</code> chunks are kept in memory.
+ * 
+ * Generation can be cancelled, e.g. if a counterexample has been found,
+ * which interrupts the generation of the current chunk.
+ * Initial suite sizes of the selector are not distributed over the chunks,
+ * thus pipelined selection should be used without them.
+ * 
+ * @author Martin Tappler
+ *
+ * @param <T>
+ *            Type of test case which is used the test-case selector
+ */
+public class PipelinedTestSelection<T extends TestCase> implements Iterator<List<Symbol>> {
+
+	// marks the end of generation in the queue, compared by identity
+	private static final List<List<Symbol>> END_OF_GENERATION = new ArrayList<>();
+
+	private TestSelector<T> selector;
+	private TraceGenerator traceGen;
+	private MealyMachine<Object, Symbol, ?, String> hypothesis;
+	private List<MutantProducer> mutants;
+	private List<MutantProducer> generationMutants;
+	private List<List<Symbol>> executedTests;
+	private boolean addProvidedTests;
+	private int nrTests;
+	private int chunkSize;
+	private int nrChunks;
+	private int suiteSize;
+	private BlockingQueue<List<List<Symbol>>> generatedChunks;
+	private Thread generationThread;
+	private volatile boolean cancelled = false;
+	// written by the generation thread, read after it has terminated
+	private long generationDuration = 0;
+	private Throwable generationFailure = null;
+	private long evalAndSelDuration = 0;
+	private Iterator<List<Symbol>> currentChunk = Collections.emptyIterator();
+	private int nrSelectedChunks = 0;
+	private boolean generationDone = false;
+
+	/**
+	 * Creates the pipeline and starts generation.
+	 * 
+	 * @param selector
+	 *            selector used for evaluation and selection
+	 * @param traceGen
+	 *            generator for candidate tests
+	 * @param hypothesis
+	 *            current hypothesis
+	 * @param mutants
+	 *            mutants used for selection
+	 * @param generationMutants
+	 *            mutants used for generation
+	 * @param executedTests
+	 *            tests executed so far, tests executed since the previous
+	 *            chunk are checked before every chunk
+	 * @param addProvidedTests
+	 *            if true, provided tests are added to
+	 *            <code>executedTests</code> by this pipeline, otherwise the
+	 *            caller is expected to add them after execution
+	 * @param nrTests
+	 *            overall number of candidate tests to generate
+	 * @param chunkSize
+	 *            number of candidate tests per chunk
+	 * @param queueCapacity
+	 *            maximum number of generated chunks waiting for selection
+	 */
+	public PipelinedTestSelection(TestSelector<T> selector, TraceGenerator traceGen,
+			MealyMachine<Object, Symbol, ?, String> hypothesis, List<MutantProducer> mutants,
+			List<MutantProducer> generationMutants, List<List<Symbol>> executedTests, boolean addProvidedTests,
+			int nrTests, int chunkSize, int queueCapacity) {
+		this.selector = selector;
+		this.traceGen = traceGen;
+		this.hypothesis = hypothesis;
+		this.mutants = mutants;
+		this.generationMutants = generationMutants;
+		this.executedTests = executedTests;
+		this.addProvidedTests = addProvidedTests;
+		this.nrTests = nrTests;
+		this.chunkSize = chunkSize;
+		this.nrChunks = (nrTests + chunkSize - 1) / chunkSize;
+		this.suiteSize = selector.getSuiteSize();
+		this.generatedChunks = new ArrayBlockingQueue<>(queueCapacity);
+		this.generationThread = new Thread(this::generate, "test-generation");
+		this.generationThread.setDaemon(true);
+		this.generationThread.start();
+	}
+
+	private void generate() {
+		try {
+			for (int chunk = 0; chunk < nrChunks && !cancelled; chunk++) {
+				long startGeneration = System.currentTimeMillis();
+				List<List<Symbol>> tests = traceGen.generateTraces(Math.min(chunkSize, nrTests - chunk * chunkSize),
+						hypothesis, generationMutants);
+				generationDuration += (System.currentTimeMillis() - startGeneration);
+				generatedChunks.put(tests);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (RuntimeException | Error e) {
+			// generators stop with an exception when cancelled
+			if (!cancelled)
+				generationFailure = e;
+		}
+		// selection waits for further chunks until the end is signalled
+		try {
+			if (!cancelled)
+				generatedChunks.put(END_OF_GENERATION);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!currentChunk.hasNext()) {
+			if (generationDone)
+				return false;
+			List<List<Symbol>> tests = takeChunk();
+			if (tests == END_OF_GENERATION) {
+				generationDone = true;
+				joinGeneration();
+				if (generationFailure instanceof Error)
+					throw (Error) generationFailure;
+				if (generationFailure != null)
+					throw (RuntimeException) generationFailure;
+				return false;
+			}
+			selectFrom(tests);
+		}
+		return true;
+	}
+
+	@Override
+	public List<Symbol> next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		List<Symbol> test = currentChunk.next();
+		if (addProvidedTests)
+			executedTests.add(test);
+		return test;
+	}
+
+	/**
+	 * Checks whether all tests selected from the current chunk have been
+	 * provided, thus the next call of <code>hasNext</code> selects tests from
+	 * the next chunk based on the executed tests.
+	 * 
+	 * @return true if the current chunk has been exhausted
+	 */
+	public boolean isChunkExhausted() {
+		return !currentChunk.hasNext();
+	}
+
+	private List<List<Symbol>> takeChunk() {
+		try {
+			return generatedChunks.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for generated tests", e);
+		}
+	}
+
+	private void selectFrom(List<List<Symbol>> tests) {
+		long startEvalAndSel = System.currentTimeMillis();
+		// distribute the suite size evenly over all chunks
+		int chunkSuiteSize = (int) ((long) suiteSize * (nrSelectedChunks + 1) / nrChunks
+				- (long) suiteSize * nrSelectedChunks / nrChunks);
+		// hypothesis and mutants are fixed within a round, later chunks only
+		// require checking the tests executed since the previous chunk
+		if (nrSelectedChunks == 0)
+			selector.setCurrentMachines(mutants, hypothesis, executedTests);
+		else
+			selector.updateExecutedTests(executedTests);
+		nrSelectedChunks++;
+		selector.updateSuiteSize(chunkSuiteSize);
+		try {
+			currentChunk = selector.select(selector.evaluate(tests));
+		} finally {
+			selector.updateSuiteSize(suiteSize);
+		}
+		evalAndSelDuration += (System.currentTimeMillis() - startEvalAndSel);
+	}
+
+	/**
+	 * Cancels the remaining generation and waits until the generation thread
+	 * has terminated.
+	 * 
+	 * @return the tests selected from the current chunk which have not been
+	 *         provided yet
+	 */
+	public Iterator<List<Symbol>> cancel() {
+		cancelled = true;
+		generationThread.interrupt();
+		joinGeneration();
+		generatedChunks.clear();
+		generationDone = true;
+		return currentChunk;
+	}
+
+	private void joinGeneration() {
+		try {
+			while (generationThread.isAlive()) {
+				// make room for a chunk that is put after cancellation
+				generatedChunks.clear();
+				generationThread.join(10);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the time spent on generation, which should only be queried after
+	 * generation has finished or has been cancelled.
+	 * 
+	 * @return generation time in milliseconds
+	 */
+	public long getGenerationDuration() {
+		return generationDuration;
+	}
+
+	public long getEvalAndSelDuration() {
+		return evalAndSelDuration;
+	}
+}
@@ -22,8 +22,18 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
 
+import com.google.common.collect.Iterators;
+
+import at.tugraz.learning.suls.BatchQuerySUL;
 import at.tugraz.mutation_equiv.mutation.MutationOperator;
 import at.tugraz.mutation_equiv.mutation.sampling.CompoundSample;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
@@ -36,6 +46,8 @@ import de.learnlib.api.SUL;
 import de.learnlib.oracles.DefaultQuery;
 import net.automatalib.automata.transout.MealyMachine;
 import net.automatalib.automata.transout.impl.FastMealy;
+import net.automatalib.automata.transout.impl.FastMealyState;
+import net.automatalib.util.automata.Automata;
 import net.automatalib.words.Alphabet;
 import net.automatalib.words.Word;
 import net.automatalib.words.WordBuilder;
@@ -55,7 +67,9 @@ import net.automatalib.words.impl.Symbol;
  * ) between rounds of learning. Hence, if generation and selection are
  * expensive, the execution of these can be avoided to some extent.
  * Additionally, tests executed on the SUL can be stored in order to account for
- * them in test-case selection in later rounds.
+ * them in test-case selection in later rounds. Generation and selection may also
+ * be pipelined, such that selected tests are executed while further tests are 
+ * generated.
  * 
  * @author Martin Tappler
  *
@@ -68,6 +82,7 @@ public class RandomCoverageSelectionEQOracle<T extends TestCase> implements Meal
 	private List<MutationOperator> mutationOperators = new ArrayList<>();
 	private int sizeTestSelectionSuite = 0;
 	private long nrActualTestSteps = 0;
+	private long nrActualResets = 0;
 	private Iterator<List<Symbol>> remainingTests = null;
 	private boolean reuseRemaining = false;
 	private TestSelector<T> selector = null;
@@ -91,6 +106,60 @@ public class RandomCoverageSelectionEQOracle<T extends TestCase> implements Meal
 	private boolean keepExecutedTests = true;
 	private List<List<Symbol>> executedTests = new ArrayList<>();
 	private AccessSequenceProvider accSeqProvider = null;
+	// number of chunks generated ahead of selection in pipelined mode
+	private static final int PIPELINE_QUEUE_CAPACITY = 2;
+	private int pipelineChunkSize = 0;
+	private PipelinedTestSelection<T> pipeline = null;
+	private SULPool sulPool = null;
+	private int snapshotBatchSize = 0;
+	private int queryBatchSize = 0;
+	private boolean speculativePreparation = false;
+	private ExecutorService speculationExecutor = null;
+	private Speculation speculation = null;
+
+	/**
+	 * Mutants and tests prepared for one round.
+	 */
+	private static class PreparedRound {
+		private FastMealy<Symbol, String> hypoCasted;
+		private HypothesisContext context;
+		private List<MutantProducer> mutants;
+		private List<MutantProducer> generationMutants;
+		// null in pipelined mode
+		private List<List<Symbol>> tests;
+		private long mutationDuration;
+		private long generationDuration;
+
+		@SuppressWarnings("unchecked")
+		private MealyMachine<Object, Symbol, ?, String> hypothesis() {
+			return (MealyMachine<Object, Symbol, ?, String>) ((MealyMachine<?, Symbol, ?, String>) hypoCasted);
+		}
+	}
+
+	/**
+	 * A round prepared in the background, which can be cancelled once it is
+	 * known to be outdated.
+	 */
+	private static class Speculation {
+		private CompletableFuture<PreparedRound> round;
+		private volatile boolean cancelled = false;
+		// thread preparing the round, interrupted on cancellation
+		private Thread worker = null;
+
+		private synchronized void setWorker(Thread worker) {
+			this.worker = worker;
+		}
+
+		private synchronized void cancel() {
+			cancelled = true;
+			if (worker != null)
+				worker.interrupt();
+		}
+
+		private boolean isCancelled() {
+			return cancelled;
+		}
+	}
 
 	public RandomCoverageSelectionEQOracle(TestTrackingSUL sul, Alphabet<Symbol> alphabet,
 			List<MutationOperator> mutationOperators, int sizeTestSelectionSuite, boolean reuseRemaining,
@@ -130,67 +199,97 @@ public class RandomCoverageSelectionEQOracle<T extends TestCase> implements Meal
 		if (reuseRemaining && remainingTests != null) {
 			bestTests = remainingTests;
 			reuseRound = true;
+			// unless the remaining tests reveal a counterexample, the next round 
+			// is performed for the same hypothesis
+			if (speculativePreparation)
+				startSpeculativePreparation(hypothesis);
 		} else {
-			FastMealy<Symbol, String> hypoCasted = MutationOperator
-					.copyMealyMachine(hypothesis, alphabet, Collections.emptyList()).getLeft();
-			long startMutation = System.currentTimeMillis();
-			MutantSample allMutants = createMutants(hypoCasted);
-			MutantSample sampledMutants = mutantSampler.sample(allMutants);
-
-			// currently one mutants may be in both the set of mutants for
-			// generation and in
-			// the set for selection which not be a problem as mutants
-			// (MutantProducer) are effectively immutable
-			// but this may change depending on the implementation
-			MutantSample sampledGenerationMutants = null;
-			if (mutantGenerationSampler == null) {
-				sampledGenerationMutants = sampledMutants;
+			PreparedRound round = takeSpeculativePreparation(hypothesis);
+			if (round == null)
+				round = prepareRound(MutationOperator.copyMealyMachine(hypothesis, alphabet, Collections.emptyList())
+						.getLeft(), () -> false);
+			mutationDuration += round.mutationDuration;
+			generationDuration += round.generationDuration;
+			traceGen.setHypothesisContext(round.context);
+			selector.setHypothesisContext(round.context);
+			if (pipelineChunkSize > 0) {
+				System.out.println("Have " + round.generationMutants.size() + " mutants for generation.");
+				pipeline = new PipelinedTestSelection<>(selector, traceGen, round.hypothesis(), round.mutants,
+						round.generationMutants,
+						// without keeping tests, only tests of this round are accounted for
+						keepExecutedTests ? executedTests : new ArrayList<>(), !keepExecutedTests,
+						sizeTestSelectionSuite, pipelineChunkSize, PIPELINE_QUEUE_CAPACITY);
+				bestTests = pipeline;
 			} else {
-				sampledGenerationMutants = mutantGenerationSampler.sample(allMutants);
+				long startEvalAndSel = System.currentTimeMillis();
+				selector.setCurrentMachines(round.mutants, round.hypoCasted, executedTests);
+				bestTests = selector.select(selector.evaluate(round.tests));
+				evalAndSelDuration += (System.currentTimeMillis() - startEvalAndSel);
 			}
-			if ("true".equals(System.getProperty("ranked_random.debug"))) {
-				System.out.println("Have " + sampledMutants.getMutants().size() + " after sampling.");
-			}
-			List<MutantProducer> mutants = sampledMutants.getMutants();
-
-			mutationDuration += (System.currentTimeMillis() - startMutation);
-			long startGeneration = System.currentTimeMillis();
-			@SuppressWarnings("unchecked")
-			List<List<Symbol>> tests = createTests(
-					(MealyMachine<Object, Symbol, ?, String>) ((MealyMachine<?, Symbol, ?, String>) hypoCasted),
-					sampledGenerationMutants.getMutants());
-			generationDuration += (System.currentTimeMillis() - startGeneration);
-			long startEvalAndSel = System.currentTimeMillis();
-			selector.setCurrentMachines(mutants, hypoCasted, executedTests);
-			bestTests = selector.select(selector.evaluate(tests));
-			evalAndSelDuration += (System.currentTimeMillis() - startEvalAndSel);
 		}
 
-		while (bestTests.hasNext()) {
-			List<Symbol> test = bestTests.next();
-			Optional<Word<String>> differingSULOutput = runTest(test, hypothesis.computeOutput(test));
-			nrExecutedTests++;
-			Optional<DefaultQuery<Symbol, Word<String>>> differingQuery = differingSULOutput.map(actualSULOutput -> {
-				WordBuilder<Symbol> wbInput = new WordBuilder<>();
-				test.subList(0, actualSULOutput.size()).forEach(wbInput::append);
-				return new DefaultQuery<>(wbInput.toWord(), actualSULOutput);
-			});
-			if (keepExecutedTests) {
-				if (differingQuery.isPresent()) {
-					List<Symbol> partlyExecutedTest = new ArrayList<>();
-					differingQuery.get().getInput().forEach(partlyExecutedTest::add);
-					executedTests.add(partlyExecutedTest);
-				} else
-					executedTests.add(test);
-			}
-			if (differingQuery.isPresent()) {
-				if (reuseRemaining) {
-					remainingTests = bestTests;
+		Optional<DefaultQuery<Symbol, Word<String>>> counterexample = Optional.empty();
+		if (sulPool != null) {
+			// the pipeline selects from the next chunk based on all tests
+			// executed before, as in sequential execution
+			PipelinedTestSelection<T> currentPipeline = pipeline;
+			BooleanSupplier drainBeforeNext = currentPipeline != null ? currentPipeline::isChunkExhausted
+					: () -> false;
+			counterexample = sulPool.execute(bestTests, hypothesis::computeOutput, (test, differingSULOutput) -> {
+				nrActualTestSteps += differingSULOutput.map(Word::size).orElse(test.size());
+				return handleTestResult(test, differingSULOutput);
+			}, drainBeforeNext);
+			// tests taken from the selection, but not executed, come first
+			bestTests = sulPool.getRemainingTests();
+		} else if (snapshotBatchSize > 0 && sul.canSnapshot()) {
+			SnapshotTestExecutor executor = new SnapshotTestExecutor(sul, alphabet, snapshotBatchSize);
+			counterexample = executor.execute(bestTests, hypothesis::computeOutput, this::handleTestResult);
+			nrActualTestSteps += executor.getNrExecutedSteps();
+			nrActualResets += executor.getNrResets();
+			bestTests = executor.getRemainingTests();
+		} else if (queryBatchSize > 0) {
+			while (!counterexample.isPresent() && bestTests.hasNext()) {
+				checkCancelled();
+				List<List<Symbol>> batch = new ArrayList<>(queryBatchSize);
+				while (batch.size() < queryBatchSize && bestTests.hasNext())
+					batch.add(bestTests.next());
+				List<Word<Symbol>> batchInputs = batch.stream().map(Word::fromList).collect(Collectors.toList());
+				List<Word<String>> hypOutputs = batchInputs.stream().map(hypothesis::computeOutput)
+						.collect(Collectors.toList());
+				List<Word<String>> sulOutputs = sul.executeBatch(batchInputs, hypOutputs);
+				nrActualResets += sulOutputs.size();
+				for (int i = 0; i < sulOutputs.size() && !counterexample.isPresent(); i++) {
+					Word<String> sulOutput = sulOutputs.get(i);
+					nrActualTestSteps += sulOutput.size();
+					counterexample = handleTestResult(batch.get(i),
+							sulOutput.equals(hypOutputs.get(i)) ? Optional.empty() : Optional.of(sulOutput));
+					if (counterexample.isPresent())
+						bestTests = Iterators.concat(batch.subList(i + 1, batch.size()).iterator(), bestTests);
 				}
-				sul.setTrack(true);
-				return differingQuery.get();
+			}
+		} else {
+			while (!counterexample.isPresent() && bestTests.hasNext()) {
+				checkCancelled();
+				List<Symbol> test = bestTests.next();
+				counterexample = handleTestResult(test, runTest(test, hypothesis.computeOutput(test)));
 			}
 		}
+		if (counterexample.isPresent()) {
+			if (speculation != null)
+				// the learner refines the hypothesis, thus a round prepared for
+				// it is outdated
+				speculation.cancel();
+			if (pipeline != null)
+				// remaining generation is not needed anymore
+				finishPipeline();
+			if (reuseRemaining) {
+				remainingTests = bestTests;
+			}
+			sul.setTrack(true);
+			return counterexample.get();
+		}
+		if (pipeline != null)
+			finishPipeline();
 		remainingTests = null;
 		if (reuseRound)
 			return findCounterExample(hypothesis, inputs);
@@ -200,7 +299,52 @@ public class RandomCoverageSelectionEQOracle<T extends TestCase> implements Meal
 		}
 	}
 
+	private static void checkCancelled() {
+		// learning in the background, e.g. for speculatively measured
+		// configurations, is cancelled by interrupts
+		if (Thread.currentThread().isInterrupted())
+			throw new CancellationException("Equivalence check cancelled");
+	}
+
+	private void finishPipeline() {
+		// afterwards, the pipeline only provides remaining tests of the current chunk
+		pipeline.cancel();
+		generationDuration += pipeline.getGenerationDuration();
+		evalAndSelDuration += pipeline.getEvalAndSelDuration();
+		pipeline = null;
+	}
+
+	/**
+	 * Counts an executed test and stores it if executed tests are kept.
+	 * 
+	 * @param test
+	 *            executed test
+	 * @param differingSULOutput
+	 *            output of the SUL if it differs from the output of the
+	 *            hypothesis
+	 * @return a counterexample if the outputs differ
+	 */
+	private Optional<DefaultQuery<Symbol, Word<String>>> handleTestResult(List<Symbol> test,
+			Optional<Word<String>> differingSULOutput) {
+		nrExecutedTests++;
+		Optional<DefaultQuery<Symbol, Word<String>>> differingQuery = differingSULOutput.map(actualSULOutput -> {
+			WordBuilder<Symbol> wbInput = new WordBuilder<>();
+			test.subList(0, actualSULOutput.size()).forEach(wbInput::append);
+			return new DefaultQuery<>(wbInput.toWord(), actualSULOutput);
+		});
+		if (keepExecutedTests) {
+			if (differingQuery.isPresent()) {
+				List<Symbol> partlyExecutedTest = new ArrayList<>();
+				differingQuery.get().getInput().forEach(partlyExecutedTest::add);
+				executedTests.add(partlyExecutedTest);
+			} else
+				executedTests.add(test);
+		}
+		return differingQuery;
+	}
+
 	private Optional<Word<String>> runTest(List<Symbol> test, Word<String> hypOutput) {
+		nrActualResets++;
 		sul.pre();
 		WordBuilder<String> sulOutBuilder = new WordBuilder<>();
 		int i = 0;
@@ -218,18 +362,157 @@ public class RandomCoverageSelectionEQOracle<T extends TestCase> implements Meal
 		return Optional.empty();
 	}
 
+	/**
+	 * Creates and samples mutants of the hypothesis and generates tests unless
+	 * these are generated in pipelined mode. Neither the selector nor any
+	 * state of this oracle other than the generator and samplers is accessed,
+	 * thus it may be performed in the background while tests of the previous
+	 * round are executed.
+	 * 
+	 * @param hypoCasted
+	 *            copy of the hypothesis
+	 * @param cancelled
+	 *            checked between mutation, sampling and generation to stop
+	 *            the preparation of an outdated round early
+	 * @return the prepared round or null if it has been cancelled
+	 */
+	private PreparedRound prepareRound(FastMealy<Symbol, String> hypoCasted, BooleanSupplier cancelled) {
+		PreparedRound round = new PreparedRound();
+		round.hypoCasted = hypoCasted;
+		// analysis results of the hypothesis are computed at most once per
+		// round and shared by operators, generators, selectors and
+		// equivalence checkers
+		round.context = new HypothesisContext(hypoCasted, alphabet);
+		long startMutation = System.currentTimeMillis();
+		MutantSample allMutants = createMutants(round.context);
+		if (cancelled.getAsBoolean())
+			return null;
+		MutantSample sampledMutants = mutantSampler.sample(allMutants);
+		if (cancelled.getAsBoolean())
+			return null;
+
+		// currently one mutants may be in both the set of mutants for
+		// generation and in
+		// the set for selection which not be a problem as mutants
+		// (MutantProducer) are effectively immutable
+		// but this may change depending on the implementation
+		MutantSample sampledGenerationMutants = null;
+		if (mutantGenerationSampler == null) {
+			sampledGenerationMutants = sampledMutants;
+		} else {
+			sampledGenerationMutants = mutantGenerationSampler.sample(allMutants);
+		}
+		if ("true".equals(System.getProperty("ranked_random.debug"))) {
+			System.out.println("Have " + sampledMutants.getMutants().size() + " after sampling.");
+		}
+		round.mutants = sampledMutants.getMutants();
+		round.generationMutants = sampledGenerationMutants.getMutants();
+		round.context.setMutants(round.mutants);
+		round.mutationDuration = System.currentTimeMillis() - startMutation;
+
+		if (pipelineChunkSize <= 0) {
+			if (cancelled.getAsBoolean())
+				return null;
+			long startGeneration = System.currentTimeMillis();
+			traceGen.setHypothesisContext(round.context);
+			round.tests = createTests(round.hypothesis(), round.generationMutants);
+			round.generationDuration = System.currentTimeMillis() - startGeneration;
+		}
+		return round;
+	}
+
+	private void startSpeculativePreparation(MealyMachine<?, Symbol, ?, String> hypothesis) {
+		// a previous speculation is outdated, as a counterexample has been found since
+		if (speculation != null) {
+			speculation.cancel();
+			discardSpeculativePreparation(awaitSpeculation());
+		}
+		if (speculationExecutor == null)
+			speculationExecutor = Executors.newSingleThreadExecutor(r -> {
+				Thread t = new Thread(r, "speculative-preparation");
+				t.setDaemon(true);
+				return t;
+			});
+		// copied now, as the learner may change the hypothesis afterwards
+		FastMealy<Symbol, String> hypoCasted = MutationOperator
+				.copyMealyMachine(hypothesis, alphabet, Collections.emptyList()).getLeft();
+		Speculation current = new Speculation();
+		current.round = CompletableFuture.supplyAsync(() -> {
+			current.setWorker(Thread.currentThread());
+			try {
+				return prepareRound(hypoCasted, current::isCancelled);
+			} catch (RuntimeException e) {
+				// interrupts may surface as any kind of exception
+				if (current.isCancelled())
+					return null;
+				throw e;
+			} finally {
+				current.setWorker(null);
+				// the executor's thread is reused for the next speculation
+				Thread.interrupted();
+			}
+		}, speculationExecutor);
+		speculation = current;
+	}
+
+	/**
+	 * Waits until the current speculation has finished or stopped after a
+	 * cancellation.
+	 * 
+	 * @return the prepared round or null if the speculation has been cancelled
+	 */
+	private PreparedRound awaitSpeculation() {
+		PreparedRound round = speculation.round.join();
+		speculation = null;
+		return round;
+	}
+
+	/**
+	 * Waits for a speculatively prepared round and returns it if it has been
+	 * prepared for a hypothesis equivalent to the given one.
+	 * 
+	 * @param hypothesis
+	 *            current hypothesis
+	 * @return the prepared round or null if there is none or it has been
+	 *         discarded
+	 */
+	private PreparedRound takeSpeculativePreparation(MealyMachine<?, Symbol, ?, String> hypothesis) {
+		if (speculation == null)
+			return null;
+		// the generator and the samplers must not be used concurrently
+		PreparedRound round = awaitSpeculation();
+		if (round != null && round.hypoCasted.size() == hypothesis.size()
+				&& Automata.testEquivalence(round.hypoCasted, hypothesis, alphabet)) {
+			return round;
+		}
+		discardSpeculativePreparation(round);
+		return null;
+	}
+
+	private void discardSpeculativePreparation(PreparedRound round) {
+		System.out.println("Discarding speculatively prepared round.");
+		// time spent on cancelled rounds is not accounted for
+		if (round != null) {
+			mutationDuration += round.mutationDuration;
+			generationDuration += round.generationDuration;
+		}
+	}
+
 	private List<List<Symbol>> createTests(MealyMachine<Object, Symbol, ?, String> hypoCasted,
 			List<MutantProducer> mutants) {
 		System.out.println("Have " + mutants.size() + " mutants for generation.");
 		return traceGen.generateTraces(sizeTestSelectionSuite, hypoCasted, mutants);
 	}
 
-	private MutantSample createMutants(FastMealy<Symbol, String> hypothesis) {
+	private MutantSample createMutants(HypothesisContext context) {
 		CompoundSample result = new CompoundSample("union-operators");
+		Map<FastMealyState<String>, List<Word<Symbol>>> accSeqs = null;
+		if (accSeqProvider != null)
+			accSeqs = accSeqProvider.accessSeqForStates(context.getHypothesis());
 		for (MutationOperator op : mutationOperators){
-			if(accSeqProvider != null)
-				op.setAccSequences(accSeqProvider.accessSeqForStates(hypothesis));
-			result.addChild(op.createMutants(hypothesis));
+			if(accSeqs != null)
+				op.setAccSequences(accSeqs);
+			result.addChild(op.createMutants(context));
 		}
 		return result;
 	}
@@ -250,6 +533,21 @@ public class RandomCoverageSelectionEQOracle<T extends TestCase> implements Meal
 		this.nrActualTestSteps = 0;
 	}
 
+	/**
+	 * Returns the number of resets of the SUL passed to the constructor
+	 * performed for equivalence testing. Tests executed on a pool are not
+	 * counted.
+	 * 
+	 * @return number of resets
+	 */
+	public long getNrActualResets() {
+		return nrActualResets;
+	}
+
+	public void resetNrActualResets() {
+		this.nrActualResets = 0;
+	}
+
 	public long getEvalAndSelDuration() {
 		return evalAndSelDuration;
 	}
@@ -294,4 +592,101 @@ public class RandomCoverageSelectionEQOracle<T extends TestCase> implements Meal
 		this.accSeqProvider = accSeqProvider;
 	}
 
+	/**
+	 * Executes tests on a pool of independent SUL instances instead of the SUL
+	 * passed to the constructor if the pool is not null. Counterexamples and
+	 * statistics are the same as for sequential execution, except for steps
+	 * of tests cancelled after a counterexample has been found, which are
+	 * counted by the pool. In pipelined mode, tests being executed are
+	 * completed before tests are selected from the next chunk, so that
+	 * selection does not depend on the number of instances.
+	 * 
+	 * @param sulPool
+	 *            pool used for test execution or null for sequential
+	 *            execution
+	 */
+	public void setSulPool(SULPool sulPool) {
+		this.sulPool = sulPool;
+	}
+
+	public SULPool getSulPool() {
+		return sulPool;
+	}
+
+	public int getSnapshotBatchSize() {
+		return snapshotBatchSize;
+	}
+
+	/**
+	 * Enables execution of tests with shared prefixes (see
+	 * {@link SnapshotTestExecutor}) if the batch size is positive and the SUL
+	 * supports snapshots. Counterexamples are the same as for sequential
+	 * execution, whereas fewer steps and resets are performed. A pool set via
+	 * <code>setSulPool</code> takes precedence.
+	 * 
+	 * @param snapshotBatchSize
+	 *            number of tests whose common prefixes are shared or 0 to
+	 *            disable
+	 */
+	public void setSnapshotBatchSize(int snapshotBatchSize) {
+		this.snapshotBatchSize = snapshotBatchSize;
+	}
+
+	public int getQueryBatchSize() {
+		return queryBatchSize;
+	}
+
+	/**
+	 * Executes tests in batches of the given size via
+	 * {@link BatchQuerySUL#executeBatch} if it is positive, which reduces the
+	 * number of round trips for SULs communicating over sockets. Execution of
+	 * a batch stops at the first failing test, thus counterexamples are the
+	 * same as for sequential execution. A pool or snapshots take precedence.
+	 * 
+	 * @param queryBatchSize
+	 *            number of tests per batch or 0 to execute tests one by one
+	 */
+	public void setQueryBatchSize(int queryBatchSize) {
+		this.queryBatchSize = queryBatchSize;
+	}
+
+	public boolean isSpeculativePreparation() {
+		return speculativePreparation;
+	}
+
+	/**
+	 * If enabled, mutants and tests for the current hypothesis are prepared in
+	 * the background while remaining tests of a previous round are executed
+	 * (see <code>reuseRemaining</code>). The prepared round is used if no
+	 * counterexample is found. Otherwise, it is outdated and its preparation
+	 * is cancelled, such that it does not delay the next round. Since the
+	 * point of cancellation depends on timing, so does the state of the
+	 * random number generators of the generator and the samplers, thus
+	 * results are not reproducible with speculative preparation.
+	 * 
+	 * @param speculativePreparation
+	 *            true to enable speculative preparation
+	 */
+	public void setSpeculativePreparation(boolean speculativePreparation) {
+		this.speculativePreparation = speculativePreparation;
+	}
+
+	public int getPipelineChunkSize() {
+		return pipelineChunkSize;
+	}
+
+	/**
+	 * Enables pipelined generation, evaluation and selection of tests (see
+	 * {@link PipelinedTestSelection}) if the chunk size is positive. Tests are
+	 * then generated in chunks of the given size while tests selected from
+	 * previous chunks are executed.
+	 * 
+	 * @param pipelineChunkSize
+	 *            number of candidate tests per chunk or 0 to disable
+	 *            pipelining
+	 */
+	public void setPipelineChunkSize(int pipelineChunkSize) {
+		this.pipelineChunkSize = pipelineChunkSize;
+	}
+
 }
@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Iterators;
+
+import de.learnlib.api.SUL;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Symbol;
+
+/**
+ * A pool of independent instances of a system under learning, on which tests
+ * are executed concurrently.
+ * 
+ * Tests are taken from an iterator in order and executed by at most one thread
+ * per instance. Results are handled in the order of the tests, thus a
+ * counterexample is always found by the test with the lowest index among all
+ * failing tests, independent of the number of instances. Once a result handler
+ * reports a counterexample, tests still being executed are cancelled. These
+ * and tests which have been taken from the iterator, but not yet executed, are
+ * returned by <code>getRemainingTests</code>.
+ * 
+ * Instances are created lazily on first use and kept, because creating them
+ * may be expensive, e.g. for SULs running in containers.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class SULPool {
+
+	private Supplier<? extends SUL<Symbol, String>> sulFactory;
+	private int nrInstances;
+	private BlockingQueue<SUL<Symbol, String>> idleSuls = null;
+	private Iterator<List<Symbol>> remainingTests = null;
+	private AtomicLong nrExecutedSteps = new AtomicLong();
+	// steps of tests whose results have been passed to result handlers
+	private long nrHandledSteps = 0;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param sulFactory
+	 *            creates independent instances of the system under learning
+	 * @param nrInstances
+	 *            number of instances and threads used for test execution
+	 */
+	public SULPool(Supplier<? extends SUL<Symbol, String>> sulFactory, int nrInstances) {
+		this.sulFactory = sulFactory;
+		this.nrInstances = nrInstances;
+	}
+
+	/**
+	 * Executes tests until either all tests have been executed or the result
+	 * handler returns a result, i.e. a counterexample.
+	 * 
+	 * @param tests
+	 *            tests to execute, only accessed by the calling thread
+	 * @param expectedOutputs
+	 *            computes the outputs expected for a test, only called by the
+	 *            calling thread
+	 * @param resultHandler
+	 *            called by the calling thread for every test in order with the
+	 *            output produced by the SUL if it differs from the expected
+	 *            output and empty otherwise
+	 * @return the first result returned by the handler or empty if there is
+	 *         none
+	 */
+	public <R> Optional<R> execute(Iterator<List<Symbol>> tests, Function<List<Symbol>, Word<String>> expectedOutputs,
+			BiFunction<List<Symbol>, Optional<Word<String>>, Optional<R>> resultHandler) {
+		return execute(tests, expectedOutputs, resultHandler, () -> false);
+	}
+
+	/**
+	 * Executes tests like {@link #execute(Iterator, Function, BiFunction)},
+	 * but handles the results of all tests being executed before taking
+	 * further tests from the iterator whenever <code>drainBeforeNext</code>
+	 * holds, e.g. because the next tests are selected based on the results of
+	 * previous tests.
+	 * 
+	 * @param tests
+	 *            tests to execute, only accessed by the calling thread
+	 * @param expectedOutputs
+	 *            computes the outputs expected for a test, only called by the
+	 *            calling thread
+	 * @param resultHandler
+	 *            called by the calling thread for every test in order with the
+	 *            output produced by the SUL if it differs from the expected
+	 *            output and empty otherwise
+	 * @param drainBeforeNext
+	 *            checked by the calling thread before taking a test from the
+	 *            iterator while other tests are being executed
+	 * @return the first result returned by the handler or empty if there is
+	 *         none
+	 */
+	public <R> Optional<R> execute(Iterator<List<Symbol>> tests, Function<List<Symbol>, Word<String>> expectedOutputs,
+			BiFunction<List<Symbol>, Optional<Word<String>>, Optional<R>> resultHandler,
+			BooleanSupplier drainBeforeNext) {
+		createInstances();
+		ExecutorService executor = Executors.newFixedThreadPool(nrInstances, r -> {
+			Thread t = new Thread(r, "sul-pool");
+			t.setDaemon(true);
+			return t;
+		});
+		Deque<List<Symbol>> runningTests = new ArrayDeque<>();
+		Deque<Future<Optional<Word<String>>>> runningExecutions = new ArrayDeque<>();
+		// only tests after a counterexample are running when it is found
+		AtomicBoolean cancelled = new AtomicBoolean();
+		try {
+			while (true) {
+				while (runningTests.size() < nrInstances
+						&& (runningTests.isEmpty() || !drainBeforeNext.getAsBoolean()) && tests.hasNext()) {
+					List<Symbol> test = tests.next();
+					Word<String> expectedOutput = expectedOutputs.apply(test);
+					runningTests.add(test);
+					runningExecutions.add(executor.submit(() -> runTest(test, expectedOutput, cancelled)));
+				}
+				if (runningTests.isEmpty()) {
+					remainingTests = tests;
+					return Optional.empty();
+				}
+				List<Symbol> test = runningTests.poll();
+				Optional<Word<String>> differingOutput = await(runningExecutions.poll());
+				nrHandledSteps += differingOutput.map(Word::size).orElse(test.size());
+				Optional<R> result = resultHandler.apply(test, differingOutput);
+				if (result.isPresent()) {
+					cancelled.set(true);
+					remainingTests = Iterators.concat(runningTests.iterator(), tests);
+					return result;
+				}
+			}
+		} finally {
+			cancelled.set(true);
+			executor.shutdown();
+			// instances must not be in use when the next tests are executed
+			awaitTermination(executor);
+		}
+	}
+
+	private Optional<Word<String>> runTest(List<Symbol> test, Word<String> expectedOutput, AtomicBoolean cancelled)
+			throws InterruptedException {
+		if (cancelled.get())
+			return Optional.empty();
+		SUL<Symbol, String> sul = idleSuls.take();
+		int i = 0;
+		try {
+			sul.pre();
+			WordBuilder<String> sulOutBuilder = new WordBuilder<>();
+			for (Symbol input : test) {
+				if (cancelled.get())
+					return Optional.empty();
+				String sulOutputStep = sul.step(input);
+				sulOutBuilder.add(sulOutputStep);
+				if (!sulOutputStep.equals(expectedOutput.getSymbol(i++)))
+					return Optional.of(sulOutBuilder.toWord());
+			}
+			return Optional.empty();
+		} finally {
+			nrExecutedSteps.addAndGet(i);
+			sul.post();
+			idleSuls.put(sul);
+		}
+	}
+
+	private void createInstances() {
+		if (idleSuls == null) {
+			idleSuls = new ArrayBlockingQueue<>(nrInstances);
+			for (int i = 0; i < nrInstances; i++)
+				idleSuls.add(sulFactory.get());
+		}
+	}
+
+	private static <T> T await(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for test execution", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new RuntimeException("Test execution failed", e.getCause());
+		}
+	}
+
+	private static void awaitTermination(ExecutorService executor) {
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.SECONDS))
+				;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the tests which have not been executed by the last call of
+	 * <code>execute</code>, including cancelled tests, in their original
+	 * order.
+	 * 
+	 * @return remaining tests
+	 */
+	public Iterator<List<Symbol>> getRemainingTests() {
+		return remainingTests;
+	}
+
+	/**
+	 * Returns the number of steps performed by tests whose results have not
+	 * been passed to result handlers, as a counterexample had been found by a
+	 * test with lower index.
+	 * 
+	 * @return number of steps of cancelled tests
+	 */
+	public long getNrCancelledSteps() {
+		return nrExecutedSteps.get() - nrHandledSteps;
+	}
+
+	public int getNrInstances() {
+		return nrInstances;
+	}
+}
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.google.common.collect.Iterators;
+
+import at.tugraz.learning.suls.SnapshotableSUL;
+import at.tugraz.mutation_equiv.util.PrefixTrie;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Symbol;
+
+/**
+ * Executes tests on a system under learning supporting snapshots, such that
+ * common prefixes of tests are executed only once.
+ * 
+ * Tests are taken from an iterator in batches and inserted into a prefix trie
+ * to determine the prefixes shared with later tests of the same batch. Tests
+ * are then executed in their original order. While a test is executed, a
+ * snapshot is taken at every node of the trie where a later test branches
+ * off or ends. A test starts by restoring the snapshot of the deepest such
+ * node on its path instead of resetting the SUL and replaying the prefix.
+ * Since results are handled in order, counterexamples are the same as for
+ * sequential execution, but fewer steps and resets are performed.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class SnapshotTestExecutor {
+
+	private SnapshotableSUL<Symbol, String> sul;
+	private Alphabet<Symbol> alphabet;
+	private int batchSize;
+	private Iterator<List<Symbol>> remainingTests = null;
+	private long nrExecutedSteps = 0;
+	private long nrResets = 0;
+
+	// state of the batch which is currently executed
+	private PrefixTrie trie = null;
+	private Snapshot[] snapshots = null;
+
+	private static class Snapshot {
+		private Object state;
+		// outputs produced by the prefix leading to the snapshot
+		private Word<String> outputs;
+
+		private Snapshot(Object state, Word<String> outputs) {
+			this.state = state;
+			this.outputs = outputs;
+		}
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param sul
+	 *            system under learning which must support snapshots
+	 * @param alphabet
+	 *            input alphabet
+	 * @param batchSize
+	 *            number of tests whose common prefixes are shared
+	 */
+	public SnapshotTestExecutor(SnapshotableSUL<Symbol, String> sul, Alphabet<Symbol> alphabet, int batchSize) {
+		this.sul = sul;
+		this.alphabet = alphabet;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Executes tests until either all tests have been executed or the result
+	 * handler returns a result, i.e. a counterexample.
+	 * 
+	 * @param tests
+	 *            tests to execute
+	 * @param expectedOutputs
+	 *            computes the outputs expected for a test
+	 * @param resultHandler
+	 *            called for every test in order with the output produced by
+	 *            the SUL if it differs from the expected output and empty
+	 *            otherwise
+	 * @return the first result returned by the handler or empty if there is
+	 *         none
+	 */
+	public <R> Optional<R> execute(Iterator<List<Symbol>> tests, Function<List<Symbol>, Word<String>> expectedOutputs,
+			BiFunction<List<Symbol>, Optional<Word<String>>, Optional<R>> resultHandler) {
+		try {
+			while (tests.hasNext()) {
+				// learning in the background is cancelled by interrupts
+				if (Thread.currentThread().isInterrupted())
+					throw new CancellationException("Test execution cancelled");
+				List<List<Symbol>> batch = new ArrayList<>(batchSize);
+				while (batch.size() < batchSize && tests.hasNext())
+					batch.add(tests.next());
+				List<int[]> paths = createTrie(batch);
+				for (int i = 0; i < batch.size(); i++) {
+					List<Symbol> test = batch.get(i);
+					Optional<Word<String>> differingOutput = runTest(test, paths.get(i), i,
+							expectedOutputs.apply(test));
+					Optional<R> result = resultHandler.apply(test, differingOutput);
+					if (result.isPresent()) {
+						remainingTests = Iterators.concat(batch.subList(i + 1, batch.size()).iterator(), tests);
+						return result;
+					}
+				}
+			}
+			remainingTests = tests;
+			return Optional.empty();
+		} finally {
+			trie = null;
+			snapshots = null;
+		}
+	}
+
+	/**
+	 * Inserts the tests of a batch into a new trie.
+	 * 
+	 * @param batch
+	 *            tests of the batch
+	 * @return for every test, the nodes on its path excluding the root
+	 */
+	private List<int[]> createTrie(List<List<Symbol>> batch) {
+		trie = new PrefixTrie();
+		List<int[]> paths = new ArrayList<>(batch.size());
+		for (int i = 0; i < batch.size(); i++) {
+			List<Symbol> test = batch.get(i);
+			int[] word = new int[test.size()];
+			for (int j = 0; j < word.length; j++)
+				word[j] = alphabet.getSymbolIndex(test.get(j));
+			trie.insert(word, i);
+			int[] path = new int[word.length];
+			int node = PrefixTrie.root();
+			for (int j = 0; j < word.length; j++)
+				path[j] = node = trie.getChild(node, word[j]);
+			paths.add(path);
+		}
+		snapshots = new Snapshot[trie.size()];
+		return paths;
+	}
+
+	private Optional<Word<String>> runTest(List<Symbol> test, int[] path, int testIndex, Word<String> hypOutput) {
+		int depth = path.length;
+		while (depth > 0 && snapshots[path[depth - 1]] == null)
+			depth--;
+		WordBuilder<String> sulOutBuilder = new WordBuilder<>();
+		if (depth > 0) {
+			Snapshot snapshot = snapshots[path[depth - 1]];
+			sul.restore(snapshot.state);
+			sulOutBuilder.append(snapshot.outputs);
+		} else {
+			nrResets++;
+			sul.pre();
+		}
+		try {
+			for (int i = depth; i < path.length; i++) {
+				nrExecutedSteps++;
+				String sulOutputStep = sul.step(test.get(i));
+				sulOutBuilder.add(sulOutputStep);
+				if (!sulOutputStep.equals(hypOutput.getSymbol(i)))
+					return Optional.of(sulOutBuilder.toWord());
+				if (isSharedJunction(path[i], testIndex))
+					snapshots[path[i]] = new Snapshot(sul.snapshot(), sulOutBuilder.toWord());
+			}
+			return Optional.empty();
+		} finally {
+			sul.post();
+		}
+	}
+
+	/**
+	 * A snapshot is needed at a node if a later test passes through it and
+	 * either branches off or ends in it.
+	 */
+	private boolean isSharedJunction(int node, int testIndex) {
+		if (trie.getMaxWord(node) <= testIndex)
+			return false;
+		int firstChild = trie.getFirstChild(node);
+		return trie.getFirstWord(node) >= 0 || firstChild >= 0 && trie.getNextSibling(firstChild) >= 0;
+	}
+
+	/**
+	 * Returns the tests which have not been executed by the last call of
+	 * <code>execute</code> in their original order.
+	 * 
+	 * @return remaining tests
+	 */
+	public Iterator<List<Symbol>> getRemainingTests() {
+		return remainingTests;
+	}
+
+	/**
+	 * Returns the number of steps executed on the SUL, which is lower than
+	 * the summed length of executed tests if tests share prefixes.
+	 * 
+	 * @return number of executed steps
+	 */
+	public long getNrExecutedSteps() {
+		return nrExecutedSteps;
+	}
+
+	public long getNrResets() {
+		return nrResets;
+	}
+}
@@ -3,18 +3,26 @@ package at.tugraz.mutation_equiv;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.lang3.tuple.Pair;
+
+import at.tugraz.learning.suls.BatchQuerySUL;
+import at.tugraz.learning.suls.SnapshotableSUL;
 import de.learnlib.api.SUL;
 import de.learnlib.api.SULException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
 import net.automatalib.words.impl.Symbol;
 
-public class TestTrackingSUL implements SUL<Symbol, String> {
+public class TestTrackingSUL implements SnapshotableSUL<Symbol, String>, BatchQuerySUL<Symbol, String> {
 	private SUL<Symbol, String> actualSUL;
+	private Alphabet<Symbol> alphabet;
 	private List<List<Symbol>> executedTests = new ArrayList<>();
 	private List<Symbol> currentTest = null;
 	private boolean track = true;
 
-	public TestTrackingSUL(SUL<Symbol, String> actualSUL) {
+	public TestTrackingSUL(SUL<Symbol, String> actualSUL, Alphabet<Symbol> alphabet) {
 		this.actualSUL = actualSUL;
+		this.alphabet = alphabet;
 	}
 
 	@Override
@@ -38,6 +46,48 @@ public class TestTrackingSUL implements SUL<Symbol, String> {
 		return actualSUL.step(in);
 	}
 
+	@Override
+	public boolean canSnapshot() {
+		return actualSUL instanceof SnapshotableSUL && 
+				((SnapshotableSUL<Symbol, String>) actualSUL).canSnapshot();
+	}
+
+	@Override
+	public Object snapshot() {
+		Object actualSnapshot = ((SnapshotableSUL<Symbol, String>) actualSUL).snapshot();
+		return Pair.of(actualSnapshot, track ? new ArrayList<>(currentTest) : null);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void restore(Object snapshot) {
+		Pair<Object, List<Symbol>> trackingSnapshot = (Pair<Object, List<Symbol>>) snapshot;
+		if (track)
+			currentTest = trackingSnapshot.getRight() == null ? new ArrayList<>()
+					: new ArrayList<>(trackingSnapshot.getRight());
+		((SnapshotableSUL<Symbol, String>) actualSUL).restore(trackingSnapshot.getLeft());
+	}
+
+	@Override
+	public List<Word<String>> executeBatch(List<? extends Word<Symbol>> tests,
+			List<? extends Word<String>> expectedOutputs) {
+		if (!(actualSUL instanceof BatchQuerySUL))
+			return BatchQuerySUL.super.executeBatch(tests, expectedOutputs);
+		List<Word<String>> outputs = ((BatchQuerySUL<Symbol, String>) actualSUL).executeBatch(tests,
+				expectedOutputs);
+		if (track) {
+			// like for single tests, only the executed inputs are tracked
+			for (int i = 0; i < outputs.size(); i++)
+				getExecutedTests().add(new ArrayList<>(tests.get(i).prefix(outputs.get(i).size()).asList()));
+		}
+		return outputs;
+	}
+
+	@Override
+	public Alphabet<Symbol> getAlphabet() {
+		return alphabet;
+	}
+
 	public boolean isTrack() {
 		return track;
 	}
@@ -18,11 +18,10 @@
 package at.tugraz.mutation_equiv.equiv_check;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -31,10 +30,13 @@ import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 
+import at.tugraz.mutation_equiv.HypothesisContext;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
+import at.tugraz.mutation_equiv.util.CompiledMealy;
 import at.tugraz.mutation_equiv.util.Cons;
 import at.tugraz.mutation_equiv.util.Nil;
 import at.tugraz.mutation_equiv.util.Trace;
+import net.automatalib.automata.concepts.StateIDs;
 import net.automatalib.automata.transout.MealyMachine;
 import net.automatalib.words.Alphabet;
 import net.automatalib.words.impl.Symbol;
@@ -49,7 +51,12 @@ import net.automatalib.words.impl.Symbol;
  * is that both models must use the same alphabet.
  * 
  * It is possible to use precompute trace in the original model, to speed-up equivalence
- * checking in certain cases.
+ * checking in certain cases. Shortest traces are stored as breadth-first search trees in
+ * the compiled hypothesis and shared by all checkers.
+ * 
+ * The hypothesis is explored in compiled form and the product of mutant and hypothesis 
+ * is explored using scratch space kept in the checker, hence a checker must not be used
+ * by several threads concurrently.
  * 
  * @author Martin Tappler
  *
@@ -59,7 +66,16 @@ public class EquivalenceChecker {
 	private Alphabet<Symbol> inputAlphabet = null;
 	private boolean precompute = false;
 	private Object hypoReference = null;
-	private Map<Object,Map<Object,Trace<Symbol>>> precompTraces = new HashMap<>();
+	private CompiledMealy compiledHypothesis = null;
+	// scratch space of the product breadth-first search in killMutant, reused between calls
+	private Object[] scheduledMutStates = new Object[64];
+	private int[] scheduledHypStates = new int[64];
+	private int[] scheduledParents = new int[64];
+	private int[] scheduledInputs = new int[64];
+	private int scheduleSize = 0;
+	private long[] visitedPairs = new long[128];
+	private int[] visitedStamps = new int[128];
+	private int visitedStamp = 0;
 
 	public EquivalenceChecker(Alphabet<Symbol> inputAlphabet, boolean precompute) {
 		super();
@@ -70,58 +86,31 @@ public class EquivalenceChecker {
 		this(inputAlphabet,false);
 	}
 	
+	/**
+	 * Computes shortest traces between all states of a machine. These are stored
+	 * in the compiled machine, hence they are shared by all checkers and discarded
+	 * together with the machine. Otherwise, they are computed on demand.
+	 * 
+	 * @param machine the machine, usually the hypothesis
+	 */
 	public void precomputeTraces(MealyMachine<Object,Symbol,?,String> machine){
-		Map<Object,Map<Object,Trace<Symbol>>> precomputedTraces = new HashMap<>();
-		for(Object s : machine.getStates())
-			precomputedTraces.put(s, precomputeTraces(machine,s));
-		precompTraces = precomputedTraces;
+		precomputeTraces(CompiledMealy.of(machine, inputAlphabet));
 	}
-
-	private Map<Object, Trace<Symbol>> precomputeTraces(MealyMachine<Object, Symbol, ?, String> machine, Object startState) {
-		Set<Object> visited = new HashSet<>();
-		Map<Object,Trace<Symbol>> tracesFromStart = new HashMap<>();
-		LinkedList<Pair<Object,Trace<Symbol>>> schedule = new LinkedList<>();
-		schedule.add(new ImmutablePair<Object, Trace<Symbol>>(startState, 
-				new Nil<Symbol>()));
-		while(!schedule.isEmpty()){
-			Pair<Object, Trace<Symbol>> current = schedule.remove();
-			Object currentState = current.getLeft();
-			Trace<Symbol> currentTrace = current.getRight();
-			if(!tracesFromStart.containsKey(currentState))
-				tracesFromStart.put(currentState, currentTrace);
-			if(!visited.contains(currentState)){
-				visited.add(currentState);
-				for (Symbol input : inputAlphabet){				
-					Object nextState = machine.getSuccessor(currentState, input);
-					Trace<Symbol> traceToNext = new Cons<Symbol>(input,currentTrace);
-					
-					schedule.add(new ImmutablePair<>(nextState, traceToNext));
-				}
-			}
-		}
-		return tracesFromStart;
+	
+	private void precomputeTraces(CompiledMealy compiled){
+		for(int s = 0; s < compiled.size(); s++)
+			compiled.getShortestPathTree(s);
 	}
 
 	public Optional<List<Symbol>> killMutant(MutantProducer mutant,
 			MealyMachine<Object, Symbol, ?, String> hypothesis, List<Symbol> initialTrace) {
-		if(precompute && hypothesis != hypoReference){
-			precomputeTraces(hypothesis);
-			hypoReference = hypothesis;
-		}
+		setHypothesis(hypothesis);
 		// this works in the current implementation and causes large speed-up so it is used
 		// change output are the only mutants with getCritTrans().isDefinitelyKilled() == true
 		// for these it suffices to find a transition from the current state to the prestate (and if there is none
 		// then the mutant can't be killed)
 		// for split state mutants, however, this would not work, as they may be killed even if the
 		// pre state of the critical transition is not reachable
-		if(precompute && mutant.getCritTrans().isDefinitelyKilled()){
-			Map<Object,Trace<Symbol>> traceFromInit = precompTraces.get(hypothesis.getState(initialTrace));
-			Trace<Symbol> traceToPreCritical = traceFromInit.get(mutant.getCritTrans().getPreState());
-			if(traceToPreCritical != null)
-				initialTrace.addAll(traceToPreCritical.toList());
-			else	
-				return Optional.empty();
-		}
 		 if(mutant.getCritTrans().isDefinitelyKilled()){
 			// if mutant is definitely killed by visiting the critical transition 
 			// we may also just avoid creating the mutant altogether and find a path to the transition
@@ -130,84 +119,223 @@ public class EquivalenceChecker {
 			// initialTrace ++ traceToTrans ++ trace to wrong output (keep in mind for future experiments)
 //			int sizeBefore = initialTrace.size();
 			Optional<List<Symbol>> result = 
-					traceToTransition(hypothesis,initialTrace,mutant.getCritTrans().getCriticalTrans());	
+					traceToTransition(compiledHypothesis,initialTrace,
+							compiledHypothesis.getTransitionId(mutant.getCritTrans().getCriticalTrans()));
 
 			return result;
+		 } else if(mutant.getCritTrans().getDefKillingSucc().isPresent() && 
+				 compiledHypothesis.getTransitionId(mutant.getCritTrans().getCriticalTrans()) >= 0){
+			 // split-state mutants can be killed without creating them, see traceToKillingSuffix
+			 return traceToKillingSuffix(compiledHypothesis, initialTrace, 
+					 compiledHypothesis.getTransitionId(mutant.getCritTrans().getCriticalTrans()),
+					 compiledHypothesis.toInputIndexes(mutant.getCritTrans().getDefKillingSucc().get()));
 		 } else {
 			 return killMutant(mutant.get(), hypothesis, initialTrace);
 		 }
 	}
-	private Optional<List<Symbol>> traceToTransition(MealyMachine<Object, Symbol, ?, String> hypothesis,
-			List<Symbol> initialTrace, Object criticalTrans) {
-		Object state = hypothesis.getSuccessor(hypothesis.getInitialState(), initialTrace);
-		Set<Object> visited = new HashSet<>();
-		LinkedList<Pair<Object,Trace<Symbol>>> schedule = new LinkedList<>();
-		schedule.add(new ImmutablePair<Object, Trace<Symbol>>(state, 
-				Trace.fromList(initialTrace)));
-		while(!schedule.isEmpty()){
-			Pair<Object, Trace<Symbol>> current = schedule.remove();
-			Object currentState = current.getLeft();
-			Trace<Symbol> currentTrace = current.getRight();
-			if(!visited.contains(currentState)){
-				visited.add(currentState);
-				for (Symbol input : inputAlphabet){
-					Object currTrans = hypothesis.getTransition(currentState, input);
-					if(currTrans.equals(criticalTrans)){
-						Trace<Symbol> finalTrace = new Cons<Symbol>(input,currentTrace);
-						return Optional.of(finalTrace.toList());
-					}
-					else {
-						Object nextState = hypothesis.getSuccessor(currentState, input);
-						Trace<Symbol> traceToNext = new Cons<Symbol>(input,currentTrace);
-						schedule.add(new ImmutablePair<>(nextState, traceToNext));
-					} 
-				}
-			}
+	
+	/**
+	 * Computes a trace killing a split-state mutant from its critical transition and 
+	 * its definitely-killing suffix. Such a mutant enters a chain of new states via the
+	 * critical transition, which is left to the original states by any input deviating
+	 * from the suffix. Only the last input of the suffix produces a different output.
+	 * Hence, the shortest trace killing the mutant either completes the suffix, if 
+	 * the initial trace ends in the chain, or it is a shortest trace to the critical
+	 * transition followed by the suffix. This depends on the structure of the mutants
+	 * created by <code>SplitStateOperator</code> (as noted in <code>CriticalTransition</code>).
+	 * 
+	 * @param hypothesis compiled hypothesis
+	 * @param initialTrace trace to extend
+	 * @param criticalTrans id of the critical transition
+	 * @param suffix definitely-killing suffix as input indexes
+	 * @return extended trace or <code>Optional.empty()</code> if the mutant cannot be killed
+	 */
+	private Optional<List<Symbol>> traceToKillingSuffix(CompiledMealy hypothesis,
+			List<Symbol> initialTrace, int criticalTrans, int[] suffix) {
+		// position in the chain after the initial trace, -1 if the mutant is in an original state
+		int pos = -1;
+		int state = hypothesis.getInitialState();
+		for(Symbol inputSymbol : initialTrace){
+			int input = hypothesis.getInputIndex(inputSymbol);
+			int trans = hypothesis.getTransitionId(state, input);
+			if(pos < 0)
+				pos = trans == criticalTrans ? 0 : -1;
+			else if(input == suffix[pos] && pos + 1 < suffix.length)
+				pos++;
+			else
+				pos = -1;
+			state = hypothesis.getTransitionSuccessor(trans);
 		}
-		return Optional.empty();
+		if(pos >= 0){
+			List<Symbol> trace = new ArrayList<>(initialTrace.size() + suffix.length - pos);
+			trace.addAll(initialTrace);
+			for(int i = pos; i < suffix.length; i++)
+				trace.add(hypothesis.getInput(suffix[i]));
+			return Optional.of(trace);
+		}
+		Optional<List<Symbol>> traceToCritical = traceToTransition(hypothesis, initialTrace, criticalTrans);
+		traceToCritical.ifPresent(trace -> {
+			for(int input : suffix)
+				trace.add(hypothesis.getInput(input));
+		});
+		return traceToCritical;
+	}
+	private Optional<List<Symbol>> traceToTransition(CompiledMealy hypothesis,
+			List<Symbol> initialTrace, int criticalTrans) {
+		if(criticalTrans < 0)
+			return Optional.empty();
+		int state = hypothesis.getSuccessor(hypothesis.getInitialState(), initialTrace);
+		int[] pathToPreState = hypothesis.getShortestPath(state, hypothesis.getTransitionSource(criticalTrans));
+		if(pathToPreState == null)
+			return Optional.empty();
+		List<Symbol> trace = new ArrayList<>(initialTrace.size() + pathToPreState.length + 1);
+		trace.addAll(initialTrace);
+		for(int input : pathToPreState)
+			trace.add(hypothesis.getInput(input));
+		trace.add(hypothesis.getInput(hypothesis.getTransitionInput(criticalTrans)));
+		return Optional.of(trace);
 	}
 
 	public Optional<List<Symbol>> killMutant(MealyMachine<Object, Symbol,?, String> mutant,
 			MealyMachine<Object, Symbol, ?, String> hypothesis, List<Symbol> initialTrace) {
-		Object mutantState = mutant.getSuccessor(mutant.getInitialState(), initialTrace);
-		Object hypState = hypothesis.getSuccessor(hypothesis.getInitialState(), initialTrace);
-		Pair<Object,Object> initState = new ImmutablePair<Object, Object>(mutantState,hypState);
-		Set<Pair<Object,Object>> visitedStates = new HashSet<>();
-		LinkedList<Pair<Pair<Object,Object>, Trace<Symbol>>> schedule = new LinkedList<>();
-		schedule.add(new ImmutablePair<>(initState, Trace.fromList(initialTrace)));
-		return killMutant(mutant,hypothesis,schedule,visitedStates);
+		setHypothesis(hypothesis);
+		return killMutant(mutant, initialTrace);
 	}
-	private Optional<List<Symbol>> killMutant(MealyMachine<Object, Symbol, ?, String> mutant,
-			MealyMachine<Object, Symbol, ?, String> hypothesis, LinkedList<Pair<Pair<Object,Object>, 
-			Trace<Symbol>>> schedule,
-			Set<Pair<Object, Object>> visitedStates) {
-		// a simple parallel breadth-first exploration of both Mealy machines
-		while(!schedule.isEmpty()){
-			Pair<Pair<Object, Object>, Trace<Symbol>> current = schedule.remove();
-			Pair<Object, Object> currentState = current.getLeft();
-			Trace<Symbol> currentTrace = current.getRight();
-			if(!visitedStates.contains(currentState)){
-				visitedStates.add(currentState);
-				for (Symbol input : inputAlphabet){
-					String outMut = mutant.getOutput(currentState.getLeft(),input);
-					String outOrig = hypothesis.getOutput(currentState.getRight(),input);
-					if(outMut.equals(outOrig)){
-						Pair<Object,Object> nextState = new ImmutablePair<Object, Object>(
-								mutant.getSuccessor(currentState.getLeft(), input), 
-								hypothesis.getSuccessor(currentState.getRight(), input));
-						Trace<Symbol> traceToNext = new Cons<Symbol>(input,currentTrace);
-						
-						schedule.add(new ImmutablePair<>(nextState, traceToNext));
-					} else {
-						Trace<Symbol> finalTrace = new Cons<Symbol>(input,currentTrace);
-						return Optional.of(finalTrace.toList());
-					}
+	
+	private <T> Optional<List<Symbol>> killMutant(MealyMachine<Object, Symbol, T, String> mutant, 
+			List<Symbol> initialTrace) {
+		CompiledMealy hyp = compiledHypothesis;
+		StateIDs<Object> mutantIds = mutant.stateIDs();
+		int nrHypStates = hyp.size();
+		Object mutantState = mutant.getSuccessor(mutant.getInitialState(), initialTrace);
+		int hypState = hyp.getSuccessor(hyp.getInitialState(), initialTrace);
+		
+		// a simple parallel breadth-first exploration of both Mealy machines,
+		// where pairs of states are encoded as mutant state id * |hyp. states| + hyp. state
+		startSearch();
+		markVisited(mutantIds.getStateId(mutantState) * (long) nrHypStates + hypState);
+		schedule(mutantState, hypState, -1, -1);
+		for(int current = 0; current < scheduleSize; current++){
+			Object currentMutState = scheduledMutStates[current];
+			int currentHypState = scheduledHypStates[current];
+			for (int input = 0; input < hyp.getNrInputs(); input++){
+				T mutTrans = mutant.getTransition(currentMutState, hyp.getInput(input));
+				String outMut = mutant.getTransitionOutput(mutTrans);
+				int hypTrans = hyp.getTransitionId(currentHypState, input);
+				String outOrig = hyp.getOutputSymbol(hyp.getTransitionOutput(hypTrans));
+				if(outMut.equals(outOrig)){
+					Object nextMutState = mutant.getSuccessor(mutTrans);
+					int nextHypState = hyp.getTransitionSuccessor(hypTrans);
+					if(markVisited(mutantIds.getStateId(nextMutState) * (long) nrHypStates + nextHypState))
+						schedule(nextMutState, nextHypState, current, input);
+				} else {
+					return Optional.of(traceTo(current, input, initialTrace));
 				}
 			}
 		}
 		return Optional.empty();
 	}
 	
+	/**
+	 * Uses the compiled hypothesis of a context rather than looking it up when
+	 * the hypothesis of the context is passed for the first time. Setting the 
+	 * context already in use has no effect.
+	 * 
+	 * @param context context of the hypothesis to be used next
+	 */
+	public void setHypothesisContext(HypothesisContext context){
+		if(context.getHypothesis() == hypoReference && context.getCompiledHypothesis() == compiledHypothesis)
+			return;
+		compiledHypothesis = context.getCompiledHypothesis();
+		hypoReference = context.getHypothesis();
+		if(precompute)
+			precomputeTraces(compiledHypothesis);
+	}
+	
+	private void setHypothesis(MealyMachine<Object, Symbol, ?, String> hypothesis){
+		if(hypothesis != hypoReference){
+			compiledHypothesis = CompiledMealy.of(hypothesis, inputAlphabet);
+			if(precompute)
+				precomputeTraces(hypothesis);
+			hypoReference = hypothesis;
+		}
+	}
+	
+	private void startSearch(){
+		scheduleSize = 0;
+		if(++visitedStamp == Integer.MAX_VALUE){
+			Arrays.fill(visitedStamps, 0);
+			visitedStamp = 1;
+		}
+	}
+	
+	private void schedule(Object mutState, int hypState, int parent, int input){
+		if(scheduleSize == scheduledHypStates.length){
+			int newLength = scheduleSize * 2;
+			scheduledMutStates = Arrays.copyOf(scheduledMutStates, newLength);
+			scheduledHypStates = Arrays.copyOf(scheduledHypStates, newLength);
+			scheduledParents = Arrays.copyOf(scheduledParents, newLength);
+			scheduledInputs = Arrays.copyOf(scheduledInputs, newLength);
+		}
+		scheduledMutStates[scheduleSize] = mutState;
+		scheduledHypStates[scheduleSize] = hypState;
+		scheduledParents[scheduleSize] = parent;
+		scheduledInputs[scheduleSize] = input;
+		scheduleSize++;
+	}
+	
+	// open addressing with linear probing, slots not stamped in the current search are free
+	private boolean markVisited(long pair){
+		if(2 * (scheduleSize + 1) > visitedPairs.length)
+			growVisited();
+		int mask = visitedPairs.length - 1;
+		int slot = hash(pair) & mask;
+		while(visitedStamps[slot] == visitedStamp){
+			if(visitedPairs[slot] == pair)
+				return false;
+			slot = (slot + 1) & mask;
+		}
+		visitedStamps[slot] = visitedStamp;
+		visitedPairs[slot] = pair;
+		return true;
+	}
+	
+	private void growVisited(){
+		long[] oldPairs = visitedPairs;
+		int[] oldStamps = visitedStamps;
+		visitedPairs = new long[oldPairs.length * 2];
+		visitedStamps = new int[oldPairs.length * 2];
+		int mask = visitedPairs.length - 1;
+		for(int oldSlot = 0; oldSlot < oldPairs.length; oldSlot++){
+			if(oldStamps[oldSlot] == visitedStamp){
+				int slot = hash(oldPairs[oldSlot]) & mask;
+				while(visitedStamps[slot] == visitedStamp)
+					slot = (slot + 1) & mask;
+				visitedStamps[slot] = visitedStamp;
+				visitedPairs[slot] = oldPairs[oldSlot];
+			}
+		}
+	}
+	
+	private static int hash(long pair){
+		return (int) ((pair * 0x9E3779B97F4A7C15L) >>> 32);
+	}
+	
+	private List<Symbol> traceTo(int scheduled, int lastInput, List<Symbol> initialTrace){
+		int length = 1;
+		for(int current = scheduled; scheduledParents[current] >= 0; current = scheduledParents[current])
+			length++;
+		Symbol[] inputs = new Symbol[length];
+		inputs[length - 1] = compiledHypothesis.getInput(lastInput);
+		int pos = length - 2;
+		for(int current = scheduled; scheduledParents[current] >= 0; current = scheduledParents[current])
+			inputs[pos--] = compiledHypothesis.getInput(scheduledInputs[current]);
+		List<Symbol> trace = new ArrayList<>(initialTrace.size() + length);
+		trace.addAll(initialTrace);
+		trace.addAll(Arrays.asList(inputs));
+		return trace;
+	}
+	
 	public List<List<Triple<String,String,String>>> allNonConformingTraces(
 			MealyMachine<Object, Symbol, ?, String> sut,
 			MealyMachine<Object, Symbol, ?, String> reference,
@@ -18,15 +18,11 @@
 package at.tugraz.mutation_equiv.mutation;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Map;
-
-import org.apache.commons.lang3.tuple.Pair;
 
 import at.tugraz.mutation_equiv.mutation.sampling.CompoundSample;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantSample;
-import net.automatalib.automata.transout.MealyMachine;
+import at.tugraz.mutation_equiv.util.CompiledMealy;
 import net.automatalib.automata.transout.impl.FastMealy;
 import net.automatalib.automata.transout.impl.FastMealyState;
 import net.automatalib.automata.transout.impl.MealyTransition;
@@ -63,15 +59,12 @@ public class ChangeOutputOperator extends MutationOperator {
 						final MealyTransition<FastMealyState<String>,String> mutTransition = machine.getTransition(s, input);
 						final CriticalTransition critTrans = new CriticalTransition(mutTransition, true,s);
 						
-						MutantProducer aMutant = new MutantProducer(idGen++, critTrans,() -> {
-							Pair<FastMealy<Symbol, String>,Map<Object,FastMealyState<String>>> newMachineAndMapping = copyMealyMachine(
-									(MealyMachine<?,Symbol,?,String>)machine, inputAlphabet, Collections.singleton(mutTransition));
-							FastMealy<Symbol, String> newMachine = newMachineAndMapping.getLeft();
-							Map<Object, FastMealyState<String>> stateMapping = newMachineAndMapping.getRight();
-							newMachine.addTransition(stateMapping.get(s), input, 
-									new MealyTransition<FastMealyState<String>,String>(
-											stateMapping.get(machine.getSuccessor(s,input)),
-											output));
+						MutantProducer aMutant = new MutantProducer(idGen.getAndIncrement(), critTrans,() -> {
+							DeltaMealy newMachine = createDelta(machine);
+							CompiledMealy base = newMachine.getBase();
+							int state = base.getStateIndex(s);
+							int inputIndex = base.getInputIndex(input);
+							newMachine.setTransition(state, inputIndex, base.getSuccessor(state, inputIndex), output);
 							return cast(newMachine);
 						},true);
 						stateSample.addChild(MutantSample.create(aMutant));
@@ -97,4 +90,8 @@ public class ChangeOutputOperator extends MutationOperator {
 	}
 	
 
+	@Override
+	public ChangeOutputOperator copy() {
+		return new ChangeOutputOperator(inputAlphabet);
+	}
 }
@@ -21,15 +21,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
-import org.apache.commons.lang3.tuple.Pair;
-
 import at.tugraz.mutation_equiv.mutation.sampling.CompoundSample;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantSample;
-import net.automatalib.automata.transout.MealyMachine;
+import at.tugraz.mutation_equiv.util.CompiledMealy;
 import net.automatalib.automata.transout.impl.FastMealy;
 import net.automatalib.automata.transout.impl.FastMealyState;
 import net.automatalib.automata.transout.impl.MealyTransition;
@@ -88,14 +85,12 @@ public class ChangeTargetOperator extends MutationOperator {
 
 						final MealyTransition<FastMealyState<String>,String> mutTransition = machine.getTransition(s, input);
 						CriticalTransition critTrans = new CriticalTransition(mutTransition, false, s);
-						MutantProducer aMutant = new MutantProducer(idGen++, critTrans,() -> {
-							Pair<FastMealy<Symbol, String>,Map<Object,FastMealyState<String>>> newMachineAndMapping = copyMealyMachine(
-									(MealyMachine<?,Symbol,?,String>)machine, inputAlphabet, Collections.singleton(mutTransition));
-							FastMealy<Symbol, String> newMachine = newMachineAndMapping.getLeft();
-							Map<Object, FastMealyState<String>> stateMapping = newMachineAndMapping.getRight();
-							newMachine.addTransition(stateMapping.get(s), input, 
-									new MealyTransition<FastMealyState<String>,String>(
-											stateMapping.get(target),machine.getOutput(s, input)));
+						MutantProducer aMutant = new MutantProducer(idGen.getAndIncrement(), critTrans,() -> {
+							DeltaMealy newMachine = createDelta(machine);
+							CompiledMealy base = newMachine.getBase();
+							int state = base.getStateIndex(s);
+							newMachine.setTransition(state, base.getInputIndex(input), base.getStateIndex(target), 
+									machine.getOutput(s, input));
 							return cast(newMachine);
 						});
 						stateSample.addChild(MutantSample.create(aMutant));
@@ -116,4 +111,8 @@ public class ChangeTargetOperator extends MutationOperator {
 		return description();
 	}
 
+	@Override
+	public ChangeTargetOperator copy() {
+		return new ChangeTargetOperator(inputAlphabet, maxDiffTargets, maxDiffInputs);
+	}
 }
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.mutation;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
+import at.tugraz.mutation_equiv.util.CompiledMealy;
+import net.automatalib.words.impl.Symbol;
+
+/**
+ * An index from the transitions of a compiled hypothesis to the mutants whose
+ * critical transition they are (see <code>CriticalTransition</code>). Mutants
+ * are identified by their column, i.e. their position in an array of mutants.
+ * 
+ * The index is stored in compressed sparse row format: for every transition id
+ * there is an offset into a flat array of definitely killed mutants and into a
+ * flat array of maybe killed mutants. The definitely-killing suffixes of maybe
+ * killed mutants are stored as input indexes in another flat array with
+ * offsets per column. Hence, looking up the mutants of a transition requires
+ * two array reads.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class CriticalTransitionIndex {
+
+	private final int[] columnTransIds;
+	private final int[] defKilledOffsets;
+	private final int[] defKilledColumns;
+	private final int[] maybeKilledOffsets;
+	private final int[] maybeKilledColumns;
+	// suffix of column c is stored in [suffixOffsets[c], suffixOffsets[c + 1])
+	private final int[] suffixOffsets;
+	private final int[] suffixInputs;
+	private final boolean[] hasSuffix;
+	private boolean maybeKilledWithoutSuffix = false;
+
+	/**
+	 * Creates an index for the given mutants.
+	 * 
+	 * @param hypothesis
+	 *            the compiled hypothesis from which the mutants were derived
+	 * @param mutantColumns
+	 *            mutants indexed by column
+	 * @param includeColumn
+	 *            determines which mutants are included in the index, e.g. to
+	 *            exclude mutants known to be killed
+	 */
+	public CriticalTransitionIndex(CompiledMealy hypothesis, MutantProducer[] mutantColumns,
+			IntPredicate includeColumn) {
+		int nrTransitions = hypothesis.getNrTransitions();
+		int nrColumns = mutantColumns.length;
+		columnTransIds = new int[nrColumns];
+		defKilledOffsets = new int[nrTransitions + 1];
+		maybeKilledOffsets = new int[nrTransitions + 1];
+		suffixOffsets = new int[nrColumns + 1];
+		hasSuffix = new boolean[nrColumns];
+
+		// first pass: count entries per transition and suffix lengths
+		int nrDefKilled = 0;
+		int nrMaybeKilled = 0;
+		for (int column = 0; column < nrColumns; column++) {
+			CriticalTransition critTrans = mutantColumns[column].getCritTrans();
+			int transId = hypothesis.getTransitionId(critTrans.getCriticalTrans());
+			columnTransIds[column] = transId;
+			int suffixLength = 0;
+			// mutants of other machines cannot be killed by executing the
+			// hypothesis
+			if (transId >= 0 && includeColumn.test(column)) {
+				if (critTrans.isDefinitelyKilled()) {
+					defKilledOffsets[transId + 1]++;
+					nrDefKilled++;
+				} else {
+					maybeKilledOffsets[transId + 1]++;
+					nrMaybeKilled++;
+					if (critTrans.getDefKillingSucc().isPresent()) {
+						hasSuffix[column] = true;
+						suffixLength = critTrans.getDefKillingSucc().get().size();
+					} else
+						maybeKilledWithoutSuffix = true;
+				}
+			}
+			suffixOffsets[column + 1] = suffixOffsets[column] + suffixLength;
+		}
+		for (int trans = 0; trans < nrTransitions; trans++) {
+			defKilledOffsets[trans + 1] += defKilledOffsets[trans];
+			maybeKilledOffsets[trans + 1] += maybeKilledOffsets[trans];
+		}
+
+		// second pass: fill in columns in ascending order
+		defKilledColumns = new int[nrDefKilled];
+		maybeKilledColumns = new int[nrMaybeKilled];
+		suffixInputs = new int[suffixOffsets[nrColumns]];
+		int[] defKilledFill = new int[nrTransitions];
+		int[] maybeKilledFill = new int[nrTransitions];
+		for (int column = 0; column < nrColumns; column++) {
+			int transId = columnTransIds[column];
+			if (transId < 0 || !includeColumn.test(column))
+				continue;
+			CriticalTransition critTrans = mutantColumns[column].getCritTrans();
+			if (critTrans.isDefinitelyKilled()) {
+				defKilledColumns[defKilledOffsets[transId] + defKilledFill[transId]++] = column;
+			} else {
+				maybeKilledColumns[maybeKilledOffsets[transId] + maybeKilledFill[transId]++] = column;
+				if (hasSuffix[column]) {
+					int pos = suffixOffsets[column];
+					for (Symbol s : critTrans.getDefKillingSucc().get())
+						suffixInputs[pos++] = hypothesis.getInputIndex(s);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param column
+	 *            column of a mutant
+	 * @return id of the critical transition of the mutant or -1 if it is not
+	 *         a transition of the compiled hypothesis
+	 */
+	public int getTransitionId(int column) {
+		return columnTransIds[column];
+	}
+
+	public int getDefKilledStart(int transId) {
+		return defKilledOffsets[transId];
+	}
+
+	public int getDefKilledEnd(int transId) {
+		return defKilledOffsets[transId + 1];
+	}
+
+	public int getDefKilledColumn(int entry) {
+		return defKilledColumns[entry];
+	}
+
+	public int getMaybeKilledStart(int transId) {
+		return maybeKilledOffsets[transId];
+	}
+
+	public int getMaybeKilledEnd(int transId) {
+		return maybeKilledOffsets[transId + 1];
+	}
+
+	public int getMaybeKilledColumn(int entry) {
+		return maybeKilledColumns[entry];
+	}
+
+	public boolean hasSuffix(int column) {
+		return hasSuffix[column];
+	}
+
+	public int getSuffixStart(int column) {
+		return suffixOffsets[column];
+	}
+
+	public int getSuffixEnd(int column) {
+		return suffixOffsets[column + 1];
+	}
+
+	public int getSuffixInput(int pos) {
+		return suffixInputs[pos];
+	}
+
+	/**
+	 * @return true if some included maybe-killed mutant has no
+	 *         definitely-killing suffix, i.e. it needs to be executed to
+	 *         check whether it is killed
+	 */
+	public boolean hasMaybeKilledWithoutSuffix() {
+		return maybeKilledWithoutSuffix;
+	}
+
+	/**
+	 * @param hypothesis
+	 *            compiled hypothesis
+	 * @param column
+	 *            column of a mutant with suffix
+	 * @param suffix
+	 *            receives the definitely-killing suffix of the mutant
+	 */
+	public void getSuffix(CompiledMealy hypothesis, int column, List<Symbol> suffix) {
+		for (int pos = suffixOffsets[column]; pos < suffixOffsets[column + 1]; pos++)
+			suffix.add(hypothesis.getInput(suffixInputs[pos]));
+	}
+}
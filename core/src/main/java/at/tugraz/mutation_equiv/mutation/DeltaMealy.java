@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.mutation;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import at.tugraz.mutation_equiv.util.CompiledMealy;
+import net.automatalib.automata.concepts.StateIDs;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.words.impl.Symbol;
+
+/**
+ * A mutant represented as a change (delta) to a compiled base machine, usually
+ * the hypothesis. It overrides single transitions of the base machine and
+ * appends new states, all other transitions are looked up in the base machine,
+ * which is shared by all mutants. Hence, creating a mutant costs time and
+ * memory in the size of the change rather than in the size of the base machine.
+ * 
+ * States are represented by their index, where base states keep their index
+ * in the compiled base machine and appended states are numbered afterwards.
+ * Transitions are represented by <code>state * |I| + input</code> like in
+ * <code>CompiledMealy</code>. A delta is changed only while creating the
+ * mutant, it should be treated as immutable afterwards.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class DeltaMealy implements MealyMachine<Integer, Symbol, Integer, String>, StateIDs<Integer> {
+
+	private final CompiledMealy base;
+	private final int nrInputs;
+	private final int nrBaseTransitions;
+	private int nrStates;
+	// transitions of appended states indexed by transition id - nrBaseTransitions
+	private int[] appendedSuccessors = new int[0];
+	private String[] appendedOutputs = new String[0];
+	// overridden transitions of base states, usually only one
+	private int nrOverridden = 0;
+	private int[] overriddenIds = new int[1];
+	private int[] overriddenSuccessors = new int[1];
+	private String[] overriddenOutputs = new String[1];
+
+	public DeltaMealy(CompiledMealy base) {
+		this.base = base;
+		this.nrInputs = base.getNrInputs();
+		this.nrBaseTransitions = base.getNrTransitions();
+		this.nrStates = base.size();
+	}
+
+	/**
+	 * Appends a new state. All transitions of the state have to be set via
+	 * <code>setTransition</code>.
+	 * 
+	 * @return index of the new state
+	 */
+	public int addState() {
+		int newLength = (nrStates + 1) * nrInputs - nrBaseTransitions;
+		appendedSuccessors = Arrays.copyOf(appendedSuccessors, newLength);
+		appendedOutputs = Arrays.copyOf(appendedOutputs, newLength);
+		return nrStates++;
+	}
+
+	/**
+	 * Sets the transition of a state for an input, overriding the transition
+	 * of the base machine if the state is a base state.
+	 * 
+	 * @param state
+	 *            source state
+	 * @param input
+	 *            input index
+	 * @param successor
+	 *            target state
+	 * @param output
+	 *            output of the transition
+	 */
+	public void setTransition(int state, int input, int successor, String output) {
+		int transId = state * nrInputs + input;
+		if (transId >= nrBaseTransitions) {
+			appendedSuccessors[transId - nrBaseTransitions] = successor;
+			appendedOutputs[transId - nrBaseTransitions] = output;
+			return;
+		}
+		int entry = findOverridden(transId);
+		if (entry < 0) {
+			if (nrOverridden == overriddenIds.length) {
+				overriddenIds = Arrays.copyOf(overriddenIds, nrOverridden * 2);
+				overriddenSuccessors = Arrays.copyOf(overriddenSuccessors, nrOverridden * 2);
+				overriddenOutputs = Arrays.copyOf(overriddenOutputs, nrOverridden * 2);
+			}
+			entry = nrOverridden++;
+			overriddenIds[entry] = transId;
+		}
+		overriddenSuccessors[entry] = successor;
+		overriddenOutputs[entry] = output;
+	}
+
+	private int findOverridden(int transId) {
+		for (int entry = 0; entry < nrOverridden; entry++) {
+			if (overriddenIds[entry] == transId)
+				return entry;
+		}
+		return -1;
+	}
+
+	public CompiledMealy getBase() {
+		return base;
+	}
+
+	public int getSuccessor(int transId) {
+		if (transId >= nrBaseTransitions)
+			return appendedSuccessors[transId - nrBaseTransitions];
+		int entry = findOverridden(transId);
+		return entry < 0 ? base.getTransitionSuccessor(transId) : overriddenSuccessors[entry];
+	}
+
+	public String getOutput(int transId) {
+		if (transId >= nrBaseTransitions)
+			return appendedOutputs[transId - nrBaseTransitions];
+		int entry = findOverridden(transId);
+		return entry < 0 ? base.getOutputSymbol(base.getTransitionOutput(transId)) : overriddenOutputs[entry];
+	}
+
+	@Override
+	public Integer getTransition(Integer state, Symbol input) {
+		return state * nrInputs + base.getInputIndex(input);
+	}
+
+	@Override
+	public Integer getSuccessor(Integer transition) {
+		return getSuccessor(transition.intValue());
+	}
+
+	@Override
+	public String getTransitionOutput(Integer transition) {
+		return getOutput(transition.intValue());
+	}
+
+	@Override
+	public Integer getInitialState() {
+		return base.getInitialState();
+	}
+
+	@Override
+	public Collection<Integer> getStates() {
+		return new AbstractList<Integer>() {
+			@Override
+			public Integer get(int index) {
+				return index;
+			}
+
+			@Override
+			public int size() {
+				return nrStates;
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return nrStates;
+	}
+
+	@Override
+	public StateIDs<Integer> stateIDs() {
+		return this;
+	}
+
+	@Override
+	public int getStateId(Integer state) {
+		return state;
+	}
+
+	@Override
+	public Integer getState(int id) {
+		return id;
+	}
+
+	@Override
+	public Void getStateProperty(Integer state) {
+		return null;
+	}
+}
@@ -21,12 +21,15 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
+import at.tugraz.mutation_equiv.HypothesisContext;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantSample;
+import at.tugraz.mutation_equiv.util.CompiledMealy;
 import net.automatalib.automata.transout.MealyMachine;
 import net.automatalib.automata.transout.impl.FastMealy;
 import net.automatalib.automata.transout.impl.FastMealyState;
@@ -49,10 +52,25 @@ public abstract class MutationOperator {
 
 	protected Alphabet<Symbol> inputAlphabet;
 	protected Alphabet<String> outputAlphabet;
-	protected static int idGen = 0;
+	// ids need to be unique among the mutants of all operators used together
+	private static final AtomicInteger sharedIdGen = new AtomicInteger();
+	protected AtomicInteger idGen = sharedIdGen;
 	
 	public static void resetIds(){
-		idGen = 0;
+		sharedIdGen.set(0);
+	}
+	
+	/**
+	 * Sets the generator of mutant ids. Operators used together need to share
+	 * a generator, while operators used concurrently for different seeds 
+	 * should have their own generator, such that ids, which determine the 
+	 * iteration order of mutants in test selection, do not depend on other 
+	 * threads.
+	 * 
+	 * @param idGen generator of mutant ids
+	 */
+	public void setIdGenerator(AtomicInteger idGen){
+		this.idGen = idGen;
 	}
 	
 	public MutationOperator(Alphabet<Symbol> inputAlphabet) {
@@ -62,6 +80,17 @@ public abstract class MutationOperator {
 		this.outputAlphabet = getOutputAlphabet(fastMachine);
 		return createMutantsAbstr(fastMachine);
 	}
+	/**
+	 * Creates mutants of the hypothesis of a context, reusing the output alphabet
+	 * computed by the context.
+	 * 
+	 * @param context context of the hypothesis to be mutated
+	 * @return created mutants
+	 */
+	public MutantSample createMutants(HypothesisContext context){
+		this.outputAlphabet = context.getOutputAlphabet();
+		return createMutantsAbstr(context.getHypothesis());
+	}
 	protected Alphabet<String> getOutputAlphabet(FastMealy<Symbol,String> hypothesis) {
 		Collection<FastMealyState<String>> allStates = hypothesis.getStates();
 
@@ -75,6 +104,14 @@ public abstract class MutationOperator {
 
 	public abstract String description();
 	public abstract String shortDescription();
+	/**
+	 * Creates an operator with the same configuration, but without state
+	 * of previous mutant creations, e.g. for learning with different seeds
+	 * in parallel.
+	 * 
+	 * @return an independent copy of this operator
+	 */
+	public abstract MutationOperator copy();
 	
 	@SuppressWarnings("unchecked")
 	protected MealyMachine<Object,Symbol,?,String> cast(FastMealy<Symbol, String> machine){
@@ -82,6 +119,23 @@ public abstract class MutationOperator {
 		return  (MealyMachine<Object,Symbol,?,String>) ((MealyMachine<?,Symbol,?,String>) machine);
 	}
 
+	@SuppressWarnings("unchecked")
+	protected MealyMachine<Object,Symbol,?,String> cast(DeltaMealy mutant){
+		// states of deltas are only passed back to the delta they come from
+		return (MealyMachine<Object,Symbol,?,String>) ((MealyMachine<?,Symbol,?,String>) mutant);
+	}
+	
+	/**
+	 * Creates an empty change to the given machine, which is compiled once and
+	 * shared by all mutants derived from it.
+	 * 
+	 * @param machine the machine to be mutated
+	 * @return a mutant equal to the machine
+	 */
+	protected DeltaMealy createDelta(FastMealy<Symbol, String> machine){
+		return new DeltaMealy(CompiledMealy.of(machine, inputAlphabet));
+	}
+
 	public static Pair<FastMealy<Symbol, String>,Map<Object,FastMealyState<String>>> copyMealyMachine(
 			MealyMachine<?,Symbol,?,String> machineUncasted, 
 			Alphabet<Symbol> alphabet, Collection<Object> ignoreTrans){
@@ -19,7 +19,6 @@ package at.tugraz.mutation_equiv.mutation;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -36,6 +35,7 @@ import org.apache.commons.lang3.tuple.Triple;
 import at.tugraz.mutation_equiv.mutation.sampling.CompoundSample;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantSample;
+import at.tugraz.mutation_equiv.util.CompiledMealy;
 import at.tugraz.mutation_equiv.util.Cons;
 import at.tugraz.mutation_equiv.util.Nil;
 import at.tugraz.mutation_equiv.util.Trace;
@@ -261,60 +261,53 @@ public class SplitStateOperator extends MutationOperator {
 			List<Symbol> succToDefKill = new ArrayList<>(inputsUntilDifference);
 			succToDefKill.add(mutateInput);
 			critTransCopy.setDefKillingSucc(Optional.of(succToDefKill));
-			MutantProducer aMutant = new MutantProducer(idGen++, critTransCopy, () -> {
-				Pair<FastMealy<Symbol, String>, Map<Object, FastMealyState<String>>> copyAndMapping = copyMealyMachine(
-						machine, inputAlphabet, Collections.singleton(ignoreTrans));
-				FastMealy<Symbol, String> copiedMachine = copyAndMapping.getLeft();
-				Map<Object, FastMealyState<String>> mapping = copyAndMapping.getRight();
-				FastMealyState<String> newFirstState = copiedMachine.addState();
-				// mapping.put(reachedFirstState, newFirstState);
-				String lastOutput = machine.getOutput(preState, lastInput);
-				copiedMachine.addTransition(mapping.get(preState), lastInput,
-						new MealyTransition<>(newFirstState, lastOutput));
-
-				FastMealyState<String> reachedEndState = machine.getSuccessor(reachedFirstState, inputsUntilDifference);
-				FastMealyState<String> newEndState = copyStates(machine, reachedFirstState, copiedMachine,
-						newFirstState, mapping, inputsUntilDifference);
+			MutantProducer aMutant = new MutantProducer(idGen.getAndIncrement(), critTransCopy, () -> {
+				DeltaMealy mutant = createDelta(machine);
+				CompiledMealy base = mutant.getBase();
+				int pre = base.getStateIndex(preState);
+				int lastInputIndex = base.getInputIndex(lastInput);
+				int newFirstState = mutant.addState();
+				String lastOutput = base.getOutputSymbol(base.getOutput(pre, lastInputIndex));
+				mutant.setTransition(pre, lastInputIndex, newFirstState, lastOutput);
+
+				int reachedFirst = base.getStateIndex(reachedFirstState);
+				int reachedEndState = base.getSuccessor(reachedFirst, inputsUntilDifference);
+				int newEndState = copyStates(base, reachedFirst, mutant, newFirstState, inputsUntilDifference);
 				// TODO does largely the same as copyStates
-				for (Symbol input : inputAlphabet) {
-					String originalOutput = machine.getOutput(reachedEndState, input);
+				int mutateInputIndex = base.getInputIndex(mutateInput);
+				for (int input = 0; input < base.getNrInputs(); input++) {
+					String originalOutput = base.getOutputSymbol(base.getOutput(reachedEndState, input));
 					String chosenOutput = null;
-					if (input.equals(mutateInput)) {
+					if (input == mutateInputIndex) {
 						chosenOutput = originalOutput + "Mutated";
 					} else {
 						chosenOutput = originalOutput;
 					}
-
-					MealyTransition<FastMealyState<String>, String> newTransition = new MealyTransition<>(
-							mapping.get(machine.getSuccessor(reachedEndState, input)), chosenOutput);
-					copiedMachine.addTransition(newEndState, input, newTransition);
+					mutant.setTransition(newEndState, input, base.getSuccessor(reachedEndState, input), chosenOutput);
 				}
-				return cast(copiedMachine);
+				return cast(mutant);
 			});
 			mutantSample.addChild(MutantSample.create(aMutant));
 		}
 	}
 
-	private FastMealyState<String> copyStates(FastMealy<Symbol, String> machine,
-			FastMealyState<String> reachedFirstState, FastMealy<Symbol, String> copiedMachine,
-			FastMealyState<String> newFirstState, Map<Object, FastMealyState<String>> stateMapping,
+	private int copyStates(CompiledMealy base, int reachedFirstState, DeltaMealy mutant, int newFirstState,
 			List<Symbol> inputsUntilDifference) {
-		FastMealyState<String> stateInOriginal = reachedFirstState;
-		FastMealyState<String> preInOriginal = reachedFirstState;
-		FastMealyState<String> preInCopy = newFirstState;
-
-		for (Symbol input : inputsUntilDifference) {
-			stateInOriginal = machine.getSuccessor(stateInOriginal, input);
-			FastMealyState<String> stateInCopy = copiedMachine.addState();
-			for (Symbol otherInput : inputAlphabet) {
-				String originalOutput = machine.getOutput(preInOriginal, otherInput);
-				FastMealyState<String> mappedOriginalSucc = stateMapping
-						.get(machine.getSuccessor(preInOriginal, otherInput));
-				if (!otherInput.equals(input)) {
-					copiedMachine.addTransition(preInCopy, otherInput,
-							new MealyTransition<>(mappedOriginalSucc, originalOutput));
+		int stateInOriginal = reachedFirstState;
+		int preInOriginal = reachedFirstState;
+		int preInCopy = newFirstState;
+
+		for (Symbol inputSymbol : inputsUntilDifference) {
+			int input = base.getInputIndex(inputSymbol);
+			stateInOriginal = base.getSuccessor(stateInOriginal, input);
+			int stateInCopy = mutant.addState();
+			for (int otherInput = 0; otherInput < base.getNrInputs(); otherInput++) {
+				String originalOutput = base.getOutputSymbol(base.getOutput(preInOriginal, otherInput));
+				if (otherInput != input) {
+					mutant.setTransition(preInCopy, otherInput, base.getSuccessor(preInOriginal, otherInput),
+							originalOutput);
 				} else {
-					copiedMachine.addTransition(preInCopy, input, new MealyTransition<>(stateInCopy, originalOutput));
+					mutant.setTransition(preInCopy, input, stateInCopy, originalOutput);
 				}
 			}
 			preInOriginal = stateInOriginal;
@@ -405,4 +398,18 @@ public class SplitStateOperator extends MutationOperator {
 		this.mutateAlsoPrefix = mutateAlsoPrefix;
 	}
 
+	/**
+	 * Access sequences set via <code>setAccSequences</code> refer to a
+	 * specific hypothesis and are therefore not copied.
+	 */
+	@Override
+	public SplitStateOperator copy() {
+		SplitStateOperator copy = new SplitStateOperator(inputAlphabet, mutationDepth);
+		copy.useGlobalVisited = useGlobalVisited;
+		copy.accSeqBound = accSeqBound;
+		copy.allowDiffInLastAccSymbol = allowDiffInLastAccSymbol;
+		copy.allowEqualPreStateAndSymbol = allowEqualPreStateAndSymbol;
+		copy.mutateAlsoPrefix = mutateAlsoPrefix;
+		return copy;
+	}
 }
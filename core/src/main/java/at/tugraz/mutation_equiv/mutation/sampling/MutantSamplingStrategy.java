@@ -33,4 +33,11 @@ public interface MutantSamplingStrategy {
 	MutantSample sample(MutantSample original);
 	String description();
 	void updateSeed(long seed);
+	/**
+	 * Creates a sampler with the same configuration and an unshared random 
+	 * number generator, which is seeded via <code>updateSeed</code> before use.
+	 * 
+	 * @return an independent copy of this sampler
+	 */
+	MutantSamplingStrategy copy();
 }
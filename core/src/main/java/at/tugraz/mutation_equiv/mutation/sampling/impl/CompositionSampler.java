@@ -57,4 +57,9 @@ public class CompositionSampler implements MutantSamplingStrategy{
 			s.updateSeed(seed);
 	}
 
+	@Override
+	public CompositionSampler copy() {
+		return new CompositionSampler(Arrays.stream(sampler).map(MutantSamplingStrategy::copy)
+				.toArray(MutantSamplingStrategy[]::new));
+	}
 }
@@ -86,4 +86,8 @@ public class ElementBasedBoundSampler implements MutantSamplingStrategy{
 		randGen = new Random(seed);
 	}
 
+	@Override
+	public ElementBasedBoundSampler copy() {
+		return new ElementBasedBoundSampler(bound, new Random(1), kind);
+	}
 }
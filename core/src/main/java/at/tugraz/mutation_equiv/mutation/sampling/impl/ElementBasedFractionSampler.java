@@ -64,4 +64,8 @@ public class ElementBasedFractionSampler extends AbstractFractionSampler {
 		return String.format("element-based(fraction=1/(2^%f),kind=%s)",powerOfOneHalf,kind);
 	}
 
+	@Override
+	public ElementBasedFractionSampler copy() {
+		return new ElementBasedFractionSampler(powerOfOneHalf, new Random(1), kind);
+	}
 }
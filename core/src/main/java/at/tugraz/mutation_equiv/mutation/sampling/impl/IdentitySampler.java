@@ -42,4 +42,9 @@ public class IdentitySampler implements MutantSamplingStrategy {
 	public void updateSeed(long seed) {
 		
 	}
+
+	@Override
+	public IdentitySampler copy() {
+		return new IdentitySampler();
+	}
 }
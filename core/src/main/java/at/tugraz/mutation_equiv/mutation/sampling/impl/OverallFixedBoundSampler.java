@@ -55,4 +55,9 @@ public class OverallFixedBoundSampler implements MutantSamplingStrategy {
 	public void updateSeed(long seed) {
 		randGen = new Random(seed);
 	}
+
+	@Override
+	public OverallFixedBoundSampler copy() {
+		return new OverallFixedBoundSampler(bound, new Random(1));
+	}
 }
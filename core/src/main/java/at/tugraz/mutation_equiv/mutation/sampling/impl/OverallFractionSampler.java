@@ -43,4 +43,9 @@ public class OverallFractionSampler extends AbstractFractionSampler {
 	public String description() {
 		return String.format("overall(fraction=1/(2^%f))",powerOfOneHalf);
 	}
+
+	@Override
+	public OverallFractionSampler copy() {
+		return new OverallFractionSampler(powerOfOneHalf, new Random(1));
+	}
 }
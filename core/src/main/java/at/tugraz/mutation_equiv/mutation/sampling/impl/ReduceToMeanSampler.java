@@ -94,4 +94,9 @@ public class ReduceToMeanSampler implements MutantSamplingStrategy {
 	public void updateSeed(long seed) {
 		randGen = new Random(seed);
 	}
+
+	@Override
+	public ReduceToMeanSampler copy() {
+		return new ReduceToMeanSampler(new Random(1), kindPattern);
+	}
 }
@@ -100,4 +100,9 @@ public class ReduceToMedianSampler implements MutantSamplingStrategy {
 	public void updateSeed(long seed) {
 		randGen = new Random(seed);
 	}
+
+	@Override
+	public ReduceToMedianSampler copy() {
+		return new ReduceToMedianSampler(new Random(1), kindPattern);
+	}
 }
@@ -94,4 +94,9 @@ public class ReduceToMinSampler implements MutantSamplingStrategy {
 	public void updateSeed(long seed) {
 		randGen = new Random(seed);
 	}
+
+	@Override
+	public ReduceToMinSampler copy() {
+		return new ReduceToMinSampler(new Random(1), kindPattern);
+	}
 }
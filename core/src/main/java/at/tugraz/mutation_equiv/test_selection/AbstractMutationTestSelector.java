@@ -18,32 +18,31 @@
 package at.tugraz.mutation_equiv.test_selection;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.Pair;
-import org.apache.commons.lang3.tuple.Triple;
 
+import at.tugraz.mutation_equiv.HypothesisContext;
 import at.tugraz.mutation_equiv.MutationTestCase;
 import at.tugraz.mutation_equiv.equiv_check.EquivalenceChecker;
+import at.tugraz.mutation_equiv.mutation.CriticalTransition;
+import at.tugraz.mutation_equiv.mutation.CriticalTransitionIndex;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
+import at.tugraz.mutation_equiv.util.CompactBitSet;
+import at.tugraz.mutation_equiv.util.CompiledMealy;
+import at.tugraz.mutation_equiv.util.HypothesisRefinement;
+import at.tugraz.mutation_equiv.util.PrefixTrie;
 import net.automatalib.automata.transout.MealyMachine;
 import net.automatalib.words.Alphabet;
-import net.automatalib.words.Word;
-import net.automatalib.words.WordBuilder;
 import net.automatalib.words.impl.Symbol;
 
 /**
@@ -60,213 +59,312 @@ import net.automatalib.words.impl.Symbol;
  * been optimised taking the specifics of this project into account. Hence,
  * changes should be made with care to not break anything.
  * 
+ * Every mutant passed to <code>setCurrentMachines</code> is assigned a column,
+ * which is its position in the list of mutants. Evaluation produces one row of
+ * the resulting kill matrix per test, stored as <code>CompactBitSet</code> of
+ * columns in <code>MutationTestCase.killedMutants</code>. Internally, i.e. in
+ * the <code>CriticalTransitionIndex</code> and in the NFA, mutants are also
+ * identified by their columns.
+ * 
  * @author Martin Tappler
  *
  */
 public abstract class AbstractMutationTestSelector extends TestSelector<MutationTestCase> {
 
-	private static class IdGen implements Iterator<Integer> {
-
-		int id = 0;
-
-		@Override
-		public boolean hasNext() {
-			return true;
-		}
+	// progress in executing the definitely-killing suffix of a mutant
+	private static class ActiveSuffix {
+		int column;
+		int pos;
+		int end;
+		boolean removed = false;
 
-		@Override
-		public Integer next() {
-			return id++;
+		public ActiveSuffix(int column, int pos, int end) {
+			this.column = column;
+			this.pos = pos;
+			this.end = end;
 		}
-
 	}
 
-	private static class State {
+	// identifies a mutant across rounds for the reuse of kill information
+	private static class ReplayKey {
+		final int transId;
+		final boolean defKilled;
+		final int[] suffix;
 
-		int hash = 1;
-
-		@Override
-		public String toString() {
-			return "State [id=" + id + ", useSingleTon=" + useSingleTon + "]";
-		}
-
-		int id;
-		Map<Integer, List<Transition>> transitions;
-
-		private boolean useSingleTon;
-
-		public State(int id) {
-			this.id = id;
-			transitions = new HashMap<>();
-		}
-
-		public State(int id, boolean useSingletonMap) {
-			this.id = id;
-			this.useSingleTon = true;
-			transitions = Collections.emptyMap();
+		public ReplayKey(int transId, boolean defKilled, int[] suffix) {
+			this.transId = transId;
+			this.defKilled = defKilled;
+			this.suffix = suffix;
 		}
 
 		@Override
 		public int hashCode() {
-			if (hash != 1)
-				return hash;
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + id;
-			hash = result;
-			return result;
+			return (31 * transId + (defKilled ? 1 : 0)) * 31 + Arrays.hashCode(suffix);
 		}
 
 		@Override
 		public boolean equals(Object obj) {
-			if (this == obj)
-				return true;
-			if (obj == null)
-				return false;
-			if (getClass() != obj.getClass())
-				return false;
-			State other = (State) obj;
-			if (id != other.id)
+			if (!(obj instanceof ReplayKey))
 				return false;
-			return true;
+			ReplayKey other = (ReplayKey) obj;
+			return transId == other.transId && defKilled == other.defKilled && Arrays.equals(suffix, other.suffix);
 		}
+	}
 
-		public void addTransition(Symbol input, State target, List<Integer> killed) {
-			addTransIntern(new Transition(this, input, target, killed));
+	/**
+	 * Traverses a prefix trie of tests, such that the hypothesis and the state
+	 * of partially executed definitely-killing suffixes are computed once for
+	 * every prefix shared by several tests. Mutants killed by the prefix
+	 * represented by a node are collected in <code>defKilled</code> and
+	 * <code>maybeKilled</code> when the node is visited.
+	 */
+	private abstract class TrieTraversal {
+		protected final PrefixTrie trie;
+		protected final CompactBitSet.Builder defKilled;
+		protected final CompactBitSet.Builder maybeKilled;
+		protected int[] inputs = new int[64];
+		protected int[] outputs = new int[64];
+
+		public TrieTraversal(PrefixTrie trie) {
+			this.trie = trie;
+			int nrColumns = mutantColumns.length;
+			defKilled = new CompactBitSet.Builder(nrColumns);
+			maybeKilled = new CompactBitSet.Builder(nrColumns);
+		}
+
+		/**
+		 * Called when a node is visited.
+		 * 
+		 * @param node
+		 *            the node
+		 * @param depth
+		 *            depth of the parent of the node, i.e. the length of the
+		 *            prefix represented by the node is <code>depth + 1</code>
+		 */
+		protected abstract void visitNode(int node, int depth);
+
+		/**
+		 * @param node
+		 *            a node other than the root
+		 * @return true if the subtree of the node should be traversed
+		 */
+		protected boolean includeNode(int node) {
+			return true;
 		}
 
-		private Transition addTransIntern(Transition trans) {
-			if (useSingleTon) {
-				if (transitions.equals(Collections.emptyMap())) {
-					transitions = Collections.singletonMap(trans.symbol.getId(), Collections.singletonList(trans));
-					return trans;
-				} else
-					throw new Error("Implementation error");
+		/**
+		 * Visits the subtree of a node, where the parent of the node is
+		 * reached by executing the hypothesis up to the given state. Active
+		 * suffixes are stored as triples of column, position of the next
+		 * suffix input and end of the suffix.
+		 */
+		public void visit(int child, int depth, int hypState, int[] active, int nrActive) {
+			if (depth == outputs.length) {
+				inputs = Arrays.copyOf(inputs, depth * 2);
+				outputs = Arrays.copyOf(outputs, depth * 2);
+			}
+			int defKilledMark = defKilled.size();
+			int maybeKilledMark = maybeKilled.size();
+			int input = trie.getInput(child);
+			int[] nextActive = new int[nrActive * 3];
+			int nrNextActive = 0;
+			for (int k = 0; k < nrActive * 3; k += 3) {
+				int column = active[k];
+				int pos = active[k + 1];
+				int end = active[k + 2];
+				if (critTransIndex.getSuffixInput(pos) == input) {
+					if (pos + 1 == end) {
+						defKilled.add(column);
+					} else {
+						nextActive[nrNextActive * 3] = column;
+						nextActive[nrNextActive * 3 + 1] = pos + 1;
+						nextActive[nrNextActive * 3 + 2] = end;
+						nrNextActive++;
+					}
+				}
+			}
+			int nrContinued = nrNextActive;
+			int trans = compiledHypothesis.getTransitionId(hypState, input);
+			for (int entry = critTransIndex.getDefKilledStart(trans), end = critTransIndex
+					.getDefKilledEnd(trans); entry < end; entry++) {
+				defKilled.add(critTransIndex.getDefKilledColumn(entry));
 			}
-			List<Transition> transList = null;
-			if (!transitions.containsKey(trans.symbol.getId())) {
-				transList = new ArrayList<>();
-				transitions.put(trans.symbol.getId(), transList);
-			} else
-				transList = transitions.get(trans.symbol.getId());
-			transList.add(trans);
-			return trans;
+			for (int entry = critTransIndex.getMaybeKilledStart(trans), end = critTransIndex
+					.getMaybeKilledEnd(trans); entry < end; entry++) {
+				int column = critTransIndex.getMaybeKilledColumn(entry);
+				if (defKilled.contains(column)) {
+					continue;
+				} else if (critTransIndex.hasSuffix(column)) {
+					// suffixes ending in the current step still block
+					// activation, like in computeOutputAndKillInfo
+					if (!containsColumn(active, nrActive, column)
+							&& !containsColumn(nextActive, nrContinued, column, nrNextActive)) {
+						if (nrNextActive * 3 == nextActive.length)
+							nextActive = Arrays.copyOf(nextActive, Math.max(3, nextActive.length * 2));
+						nextActive[nrNextActive * 3] = column;
+						nextActive[nrNextActive * 3 + 1] = critTransIndex.getSuffixStart(column);
+						nextActive[nrNextActive * 3 + 2] = critTransIndex.getSuffixEnd(column);
+						nrNextActive++;
+					}
+				} else {
+					maybeKilled.add(column);
+				}
+			}
+			inputs[depth] = input;
+			outputs[depth] = compiledHypothesis.getTransitionOutput(trans);
+
+			visitNode(child, depth);
+			int nextState = compiledHypothesis.getTransitionSuccessor(trans);
+			for (int grandChild = trie.getFirstChild(child); grandChild >= 0; grandChild = trie
+					.getNextSibling(grandChild)) {
+				if (includeNode(grandChild))
+					visit(grandChild, depth + 1, nextState, nextActive, nrNextActive);
+			}
+			defKilled.truncate(defKilledMark);
+			maybeKilled.truncate(maybeKilledMark);
 		}
 
-		public Transition addTransition(Symbol input, State state) {
-			return addTransIntern(new Transition(this, input, state));
+		private boolean containsColumn(int[] active, int nrActive, int column) {
+			return containsColumn(active, 0, column, nrActive);
 		}
 
-		public Transition addTransition(Symbol input, State target, Integer killedMut) {
-			List<Integer> killedMutants = Collections.singletonList(killedMut);
-			// new ArrayList<>(1);
-			// killedMutants.add(killedMut);
-			return addTransIntern(new Transition(this, input, target, killedMutants));
+		private boolean containsColumn(int[] active, int from, int column, int to) {
+			for (int k = from; k < to; k++) {
+				if (active[k * 3] == column)
+					return true;
+			}
+			return false;
 		}
+	}
 
-		public void addTransition(Symbol input, State state, boolean isMut) {
-			Transition trans = addTransition(input, state);
-			trans.mutant = isMut;
-		}
+	/**
+	 * Evaluates tests inserted into a prefix trie, creating a result for every
+	 * test.
+	 */
+	private class TrieEvaluation extends TrieTraversal {
+		private final List<List<Symbol>> tests;
+		private final MutationTestCase[] results;
+		private final CompactBitSet.Builder killedMutants;
 
-		public void addTransition(Symbol input, State target, Integer killedMut, boolean isMut) {
-			Transition trans = addTransition(input, target, killedMut);
-			trans.mutant = isMut;
+		public TrieEvaluation(PrefixTrie trie, List<List<Symbol>> tests, MutationTestCase[] results) {
+			super(trie);
+			this.tests = tests;
+			this.results = results;
+			killedMutants = new CompactBitSet.Builder(mutantColumns.length);
 		}
-	}
 
-	private static class Transition {
-		State source;
-		Symbol symbol;
 		@Override
-		public String toString() {
-			return "Transition [source=" + source + ", symbol=" + symbol + ", target=" + target + ", mutant=" + mutant
-					+ ", active=" + active + ", killedMutants=" + killedMutants + "]";
+		protected void visitNode(int node, int depth) {
+			for (int testIndex = trie.getFirstWord(node); testIndex >= 0; testIndex = trie
+					.getNextWord(testIndex)) {
+				results[testIndex] = createResult(tests.get(testIndex));
+			}
 		}
 
-		int hash = 1;
-
-		@Override
-		public int hashCode() {
-			if (hash != 1)
-				return hash;
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + ((target == null) ? 0 : target.hashCode());
-			result = prime * result + ((source == null) ? 0 : source.hashCode());
-			result = prime * result + ((symbol == null) ? 0 : symbol.hashCode());
-			result *= prime;
-			hash = result;
-			// System.out.println(hash);
-			return result;
+		private MutationTestCase createResult(List<Symbol> test) {
+			defKilled.forEach(killedMutants::add);
+			maybeKilled.forEach(maybeKilledIndex -> {
+				MealyMachine<Object, Symbol, Object, String> mut = mutantColumns[maybeKilledIndex].get();
+				if (doesTestKill(mut, test, outputs)) {
+					killedMutants.add(maybeKilledIndex);
+				}
+			});
+			int nrKilled = killedMutants.size();
+			return new MutationTestCase((double) nrKilled / mutantsWithIndexes.size(), test,
+					killedMutants.buildAndClear());
 		}
+	}
 
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj)
-				return true;
-			if (obj == null)
-				return false;
-			if (getClass() != obj.getClass())
-				return false;
-			Transition other = (Transition) obj;
-			if (source == null) {
-				if (other.source != null)
-					return false;
-			} else if (!source.equals(other.source))
-				return false;
-			if (symbol == null) {
-				if (other.symbol != null)
-					return false;
-			} else if (!symbol.equals(other.symbol))
-				return false;
-			if (target == null) {
-				if (other.target != null)
-					return false;
-			} else if (!target.equals(other.target))
-				return false;
-			return true;
-		}
+	/**
+	 * Replays executed tests with indexes in <code>[fromTest, toTest)</code>
+	 * stored in the trie of executed tests and marks the mutants killed by any
+	 * of them. As kills are preserved when extending tests, it is sufficient
+	 * to collect the mutants killed by tests in the nodes where tests end.
+	 */
+	private class ExecutedTestReplay extends TrieTraversal {
+		private final int fromTest;
+		private final int toTest;
+		private final boolean[] killedByExecuted;
 
-		State target;
-		boolean mutant = false;
-		boolean active = false;
-		List<Integer> killedMutants; // TODO maybe change to single integer as
-										// there may only be one currently
-
-		public Transition(State source, Symbol symbol, State target, List<Integer> killed) {
-			super();
-			this.source = source;
-			this.target = target;
-			this.symbol = symbol;
-			killedMutants = killed;
+		public ExecutedTestReplay(PrefixTrie trie, int fromTest, int toTest, boolean[] killedByExecuted) {
+			super(trie);
+			this.fromTest = fromTest;
+			this.toTest = toTest;
+			this.killedByExecuted = killedByExecuted;
 		}
 
-		public Transition(State source, Symbol input, State target) {
-			this.source = source;
-			this.target = target;
-			this.symbol = input;
-			killedMutants = Collections.emptyList();
+		@Override
+		protected boolean includeNode(int node) {
+			return trie.getMinWord(node) < toTest && trie.getMaxWord(node) >= fromTest;
 		}
-	}
 
-	private static class MutationNFA {
-		State init;
+		@Override
+		protected void visitNode(int node, int depth) {
+			boolean testEnds = false;
+			for (int testIndex = trie.getFirstWord(node); testIndex >= 0 && !testEnds; testIndex = trie
+					.getNextWord(testIndex)) {
+				testEnds = fromTest <= testIndex && testIndex < toTest;
+			}
+			if (!testEnds)
+				return;
+			defKilled.forEach(defKilledIndex -> {
+				if (!killedByExecuted[defKilledIndex]) {
+					mutantsWithIndexes.remove(mutantColumns[defKilledIndex].getId());
+					killedByExecuted[defKilledIndex] = true;
+				}
+			});
 
-		public MutationNFA(State init) {
-			super();
-			this.init = init;
+			// this will most certainly never be executed, because we mostly
+			// use split-state and change-output mutation which produces mutants
+			// that are either
+			// found to be killed definitely by the traversal, or
+			// which are not killed at all
+			if (maybeKilled.size() == 0)
+				return;
+			List<Symbol> test = new ArrayList<>(depth + 1);
+			for (int i = 0; i <= depth; i++)
+				test.add(compiledHypothesis.getInput(inputs[i]));
+			maybeKilled.forEach(maybeKilledIndex -> {
+				if (killedByExecuted[maybeKilledIndex])
+					return;
+				MutantProducer mutProd = mutantColumns[maybeKilledIndex];
+				MealyMachine<Object, Symbol, Object, String> mut = mutProd.get();
+				if (doesTestKill(mut, test, outputs)) {
+					mutantsWithIndexes.remove(mutProd.getId());
+					killedByExecuted[maybeKilledIndex] = true;
+				}
+			});
 		}
 	}
 
 	protected Map<Integer, MutantProducer> mutantsWithIndexes = null;
+	// mutants indexed by their column in the kill matrix
+	protected MutantProducer[] mutantColumns = null;
+	private ThreadLocal<CompactBitSet.Builder> killCollectors = null;
+	private ThreadLocal<CompactBitSet.Builder> maybeKilledCollectors = null;
 	protected EquivalenceChecker equivChecker = null;
 	protected Alphabet<Symbol> inputAlphabet = null;
-	protected Map<Object, List<Integer>> transToDefinitelyKilled = null;
-	protected Map<Object, List<Pair<Integer, Optional<List<Symbol>>>>> transToMaybeKilled = null;
+	protected CompiledMealy compiledHypothesis = null;
+	protected CriticalTransitionIndex critTransIndex = null;
 	protected MutationNFA mutNFA = null;
+	private ThreadLocal<NFASimulator> nfaSimulators = null;
 	protected boolean useNfaBasedOptimization = false;
 	private boolean nfaBasedEvalPossible = false;
+	protected boolean useTrieBasedEvaluation = false;
+	protected boolean useIncrementalAnalysis = false;
+	// executed tests, kept between rounds
+	private PrefixTrie executedTestTrie = null;
+	private List<List<Symbol>> indexedExecutedTests = null;
+	private int nrIndexedExecutedTests = 0;
+	// results of replaying executed tests in the previous round
+	private CompiledMealy previousHypothesis = null;
+	private Map<ReplayKey, Boolean> previousReplayResults = null;
+	private List<List<Symbol>> previousExecutedTests = null;
+	private int nrPreviousExecutedTests = 0;
+	// mutants killed by the executed tests checked for the current machines
+	private boolean[] killedByExecuted = null;
+	private List<List<Symbol>> checkedExecutedTests = null;
+	private int nrCheckedExecutedTests = 0;
 
 	public AbstractMutationTestSelector(int testSuiteSize, Alphabet<Symbol> inputAlphabet) {
 		super(testSuiteSize);
@@ -274,138 +372,227 @@ public abstract class AbstractMutationTestSelector extends TestSelector<Mutation
 		this.inputAlphabet = inputAlphabet;
 	}
 
+	@Override
+	public void setHypothesisContext(HypothesisContext context) {
+		super.setHypothesisContext(context);
+		equivChecker.setHypothesisContext(context);
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public void setCurrentMachines(List<MutantProducer> mutants, MealyMachine<?, Symbol, ?, String> hypothesis,
 			List<List<Symbol>> executedTests) {
 		super.setCurrentMachines(mutants, hypothesis, executedTests);
 		mutantsWithIndexes = new HashMap<>();
-
-		transToDefinitelyKilled = new HashMap<>();
-		transToMaybeKilled = new HashMap<>();
+		mutantColumns = mutants.toArray(new MutantProducer[mutants.size()]);
+		final int nrColumns = mutantColumns.length;
+		killCollectors = ThreadLocal.withInitial(() -> new CompactBitSet.Builder(nrColumns));
+		maybeKilledCollectors = ThreadLocal.withInitial(() -> new CompactBitSet.Builder(nrColumns));
+
+		if (context != null && context.isFor(hypothesis)) {
+			compiledHypothesis = context.getCompiledHypothesis();
+			critTransIndex = context.getMutants() == mutants ? context.getCriticalTransitionIndex() : null;
+		} else {
+			compiledHypothesis = CompiledMealy.of(hypothesis, inputAlphabet);
+			critTransIndex = null;
+		}
+		if (critTransIndex == null)
+			critTransIndex = new CriticalTransitionIndex(compiledHypothesis, mutantColumns, column -> true);
 		mutNFA = null;
 
-		for (MutantProducer newMutant : mutants) {
+		for (MutantProducer newMutant : mutantColumns) {
 			mutantsWithIndexes.put(newMutant.getId(), newMutant);
-			if (newMutant.getCritTrans().isDefinitelyKilled()) {
-				addToTransMap(transToDefinitelyKilled, newMutant.getCritTrans().getCriticalTrans(), newMutant.getId());
-			} else {
-				addToTransMap(transToMaybeKilled, newMutant.getCritTrans().getCriticalTrans(),
-						new ImmutablePair<>(newMutant.getId(), newMutant.getCritTrans().getDefKillingSucc()));
-			}
 		}
 		if (!executedTests.isEmpty())
 			System.out.println("Before checking " + executedTests.size() + " executed tests we have "
 					+ mutantsWithIndexes.size() + " mutants.");
-		for (List<Symbol> execTest : executedTests) {
-			Triple<Word<String>, Set<Pair<Integer, Object>>, Set<Integer>> killInfo = computeOutputAndKillInfo(
-					(MealyMachine<Object, Symbol, Object, String>) hypothesis, execTest);
-			for (Pair<Integer, Object> defKilled : killInfo.getMiddle()) {
-				mutantsWithIndexes.remove(defKilled.getLeft());
-				boolean removed = transToDefinitelyKilled.get(defKilled.getRight()).remove(defKilled.getLeft());
-				if (!removed) {
-					removed = transToMaybeKilled.get(defKilled.getRight())
-							.removeIf(p -> p.getLeft() == defKilled.getLeft());
-					if (!removed)
-						System.out.println(defKilled.getLeft());
-				}
-			}
-
-			// this will most certainly never be executed, because we mostly
-			// use split-state and change-output mutation which produces mutants
-			// that are either
-			// found to be killed definitely by computeOutputAndKillInfo, or
-			// which are not killed at all
-			for (int maybeKilledIndex : killInfo.getRight()) {
-				MutantProducer mutProd = mutantsWithIndexes.get(maybeKilledIndex);
-				MealyMachine<Object, Symbol, Object, String> mut = mutProd.get();
-				if (doesTestKill(mut, execTest, killInfo.getLeft())) {
-					mutantsWithIndexes.remove(maybeKilledIndex);
-					transToMaybeKilled.get(mutProd.getCritTrans())
-							.removeIf(critPair -> critPair.getLeft() == maybeKilledIndex);
+		updateExecutedTestTrie(executedTests);
+		boolean[] killedByExecuted = new boolean[nrColumns];
+		int nrReplayedTests = 0;
+		if (useIncrementalAnalysis && previousHypothesis != null && executedTests == previousExecutedTests
+				&& executedTests.size() >= nrPreviousExecutedTests) {
+			// reuse the results of the previous round for mutants in the
+			// unchanged part of the hypothesis, these only need to be checked
+			// against tests executed since then
+			HypothesisRefinement refinement = new HypothesisRefinement(previousHypothesis, compiledHypothesis);
+			boolean[] replayAll = new boolean[nrColumns];
+			int nrReused = 0;
+			for (int column = 0; column < nrColumns; column++) {
+				ReplayKey key = replayKey(column, refinement);
+				Boolean killed = key != null ? previousReplayResults.get(key) : null;
+				if (killed == null) {
+					replayAll[column] = true;
+				} else {
+					nrReused++;
+					if (killed) {
+						mutantsWithIndexes.remove(mutantColumns[column].getId());
+						killedByExecuted[column] = true;
+					}
 				}
 			}
+			replayExecutedTests(0, nrPreviousExecutedTests, killedByExecuted, column -> replayAll[column]);
+			nrReplayedTests = nrPreviousExecutedTests;
+			System.out.println("Reused results of executed tests for " + nrReused + " mutants ("
+					+ refinement.getNrUnchangedStates() + " unchanged states).");
 		}
-		if (useNfaBasedOptimization) {
-			nfaBasedEvalPossible = true;
-			initMutationNFA();
-		} else {
-			nfaBasedEvalPossible = false;
-		}
+		replayExecutedTests(nrReplayedTests, executedTests.size(), killedByExecuted,
+				column -> !killedByExecuted[column]);
+		if (!executedTests.isEmpty())
+			critTransIndex = new CriticalTransitionIndex(compiledHypothesis, mutantColumns,
+					column -> !killedByExecuted[column]);
+		if (useIncrementalAnalysis)
+			storeReplayResults(executedTests, killedByExecuted);
+		this.killedByExecuted = killedByExecuted;
+		checkedExecutedTests = executedTests;
+		nrCheckedExecutedTests = executedTests.size();
+		createNFA();
 
 		if (!executedTests.isEmpty())
 			System.out.println("After checking executed tests we have " + mutantsWithIndexes.size() + " mutants.");
 	}
 
-	private void initMutationNFA() {
-		IdGen idGen = new IdGen();
-		mutNFA = new MutationNFA(new State(idGen.next()));
-		LinkedList<Pair<Object, State>> stateSchedule = new LinkedList<>();
-		stateSchedule.add(new ImmutablePair<>(hypothesis.getInitialState(), mutNFA.init));
-		Map<Object, State> mealyToNFAState = new HashMap<>();
-		mealyToNFAState.put(hypothesis.getInitialState(), mutNFA.init);
-		Set<Object> visited = new HashSet<>();
-		while (!stateSchedule.isEmpty()) {
-			Pair<Object, State> currentStatePair = stateSchedule.poll();
-			Object currentMealyState = currentStatePair.getLeft();
-			State currentNFAState = currentStatePair.getRight();
-			visited.add(currentMealyState);
-			for (Symbol input : inputAlphabet) {
-				Object transition = hypothesis.getTransition(currentMealyState, input);
-				List<Pair<Integer, Optional<List<Symbol>>>> maybeKilled = transToMaybeKilled.get(transition);
-
-				if (maybeKilled != null && !maybeKilled.isEmpty()) {
-					for (Pair<Integer, Optional<List<Symbol>>> m : maybeKilled) {
-						if (!m.getRight().isPresent()) {
-							nfaBasedEvalPossible = false;
-							return;
-						}
-						Integer killedMut = m.getLeft();
-						addSequence(killedMut, currentNFAState, input, new LinkedList<>(m.getRight().get()), idGen);
-					}
-				}
-				State nextNFAState = null;
-				Object mealyTarget = hypothesis.getSuccessor(transition);
-				
-				if (!mealyToNFAState.containsKey(mealyTarget)) {
-					nextNFAState = new State(idGen.next());
-					mealyToNFAState.put(mealyTarget, nextNFAState);
-					stateSchedule.add(new ImmutablePair<>(mealyTarget, nextNFAState));
-				} else {
-					nextNFAState = mealyToNFAState.get(mealyTarget);
-				}
-				List<Integer> defKilled = transToDefinitelyKilled.get(transition);
-				if (defKilled != null && !defKilled.isEmpty()) {
-					currentNFAState.addTransition(input, nextNFAState, defKilled);
-				} else {
-					currentNFAState.addTransition(input, nextNFAState);
-				}
-			}
-		}
+	/**
+	 * Checks only the tests executed since the last call of
+	 * <code>setCurrentMachines</code> or of this method, which yields the same
+	 * mutants as checking all executed tests, since hypothesis and mutants are
+	 * unchanged. The index of critical transitions and the NFA are only
+	 * rebuilt if these tests kill mutants. All executed tests are checked if
+	 * <code>executedTests</code> is not the list passed before or if tests have
+	 * been removed from it.
+	 * 
+	 * @param executedTests
+	 *            all tests executed on the SUL
+	 */
+	@Override
+	public void updateExecutedTests(List<List<Symbol>> executedTests) {
+		if (executedTests != checkedExecutedTests || executedTests.size() < nrCheckedExecutedTests) {
+			setCurrentMachines(mutants, hypothesis, executedTests);
+			return;
+		}
+		if (executedTests.size() == nrCheckedExecutedTests)
+			return;
+		int nrAliveMutants = mutantsWithIndexes.size();
+		updateExecutedTestTrie(executedTests);
+		// the index only contains mutants not killed by the tests checked before
+		traverseExecutedTests(nrCheckedExecutedTests, executedTests.size(), killedByExecuted);
+		nrCheckedExecutedTests = executedTests.size();
+		if (mutantsWithIndexes.size() < nrAliveMutants) {
+			critTransIndex = new CriticalTransitionIndex(compiledHypothesis, mutantColumns,
+					column -> !killedByExecuted[column]);
+			createNFA();
+		}
+		if (useIncrementalAnalysis)
+			storeReplayResults(executedTests, killedByExecuted);
+		System.out.println("After checking executed tests we have " + mutantsWithIndexes.size() + " mutants.");
 	}
 
-	private void addSequence(Integer killedMut, State nfaState, Symbol first, LinkedList<Symbol> rest, IdGen idGen) {
-		State newNfaState = new State(idGen.next(), true);
-		if (!rest.isEmpty()) {
-			nfaState.addTransition(first, newNfaState, true);
-			addSequence(killedMut, newNfaState, rest.remove(), rest, idGen);
+	private void createNFA() {
+		nfaSimulators = null;
+		mutNFA = null;
+		if (useNfaBasedOptimization && !critTransIndex.hasMaybeKilledWithoutSuffix()) {
+			nfaBasedEvalPossible = true;
+			mutNFA = new MutationNFA(compiledHypothesis, critTransIndex);
+			final MutationNFA nfa = mutNFA;
+			nfaSimulators = ThreadLocal.withInitial(() -> new NFASimulator(nfa));
 		} else {
-			nfaState.addTransition(first, newNfaState, killedMut, true);
+			nfaBasedEvalPossible = false;
 		}
+	}
 
+	/**
+	 * Inserts the tests executed since the last call into the trie of executed
+	 * tests, which is kept between rounds of learning. The trie is rebuilt if
+	 * a different list of executed tests is passed.
+	 * 
+	 * @param executedTests
+	 *            all tests executed on the SUL
+	 */
+	private void updateExecutedTestTrie(List<List<Symbol>> executedTests) {
+		if (executedTests != indexedExecutedTests || executedTests.size() < nrIndexedExecutedTests) {
+			executedTestTrie = new PrefixTrie();
+			indexedExecutedTests = executedTests;
+			nrIndexedExecutedTests = 0;
+		}
+		for (; nrIndexedExecutedTests < executedTests.size(); nrIndexedExecutedTests++)
+			executedTestTrie.insert(compiledHypothesis.toInputIndexes(executedTests.get(nrIndexedExecutedTests)),
+					nrIndexedExecutedTests);
 	}
 
-	private <T> void addToTransMap(Map<Object, List<T>> transToKilledInfo, Object trans, T id) {
+	/**
+	 * Replays executed tests on the hypothesis and marks the mutants killed by
+	 * them.
+	 * 
+	 * @param fromTest
+	 *            index of the first executed test to replay
+	 * @param toTest
+	 *            index after the last executed test to replay
+	 * @param killedByExecuted
+	 *            marks mutants killed by executed tests, indexed by column
+	 * @param includeColumn
+	 *            determines for which mutants kills are checked
+	 */
+	private void replayExecutedTests(int fromTest, int toTest, boolean[] killedByExecuted,
+			IntPredicate includeColumn) {
+		if (fromTest >= toTest)
+			return;
+		critTransIndex = new CriticalTransitionIndex(compiledHypothesis, mutantColumns, includeColumn);
+		traverseExecutedTests(fromTest, toTest, killedByExecuted);
+	}
 
-		if (transToKilledInfo.containsKey(trans)) {
-			transToKilledInfo.get(trans).add(id);
-		} else {
-			List<T> newSubList = new ArrayList<>();
-			newSubList.add(id);
-			transToKilledInfo.put(trans, newSubList);
+	private void traverseExecutedTests(int fromTest, int toTest, boolean[] killedByExecuted) {
+		ExecutedTestReplay replay = new ExecutedTestReplay(executedTestTrie, fromTest, toTest, killedByExecuted);
+		for (int child = executedTestTrie.getFirstChild(PrefixTrie.root()); child >= 0; child = executedTestTrie
+				.getNextSibling(child)) {
+			if (replay.includeNode(child))
+				replay.visit(child, 0, compiledHypothesis.getInitialState(), new int[0], 0);
 		}
 	}
 
+	/**
+	 * Computes the key under which the result of replaying executed tests is
+	 * stored for a mutant. Whether executed tests kill a mutant without
+	 * executing it only depends on the positions at which its critical
+	 * transition is passed and on its definitely-killing suffix, hence results
+	 * can be reused for mutants whose critical transitions leave unchanged
+	 * states.
+	 * 
+	 * @param column
+	 *            column of a mutant
+	 * @param refinement
+	 *            maps the current hypothesis to the hypothesis under which the
+	 *            key should be computed or null for the current hypothesis
+	 * @return the key or null if the result for the mutant cannot be reused
+	 */
+	private ReplayKey replayKey(int column, HypothesisRefinement refinement) {
+		int transId = critTransIndex.getTransitionId(column);
+		if (transId < 0)
+			return null;
+		if (refinement != null)
+			transId = refinement.getOldTransitionId(transId);
+		if (transId < 0)
+			return null;
+		CriticalTransition critTrans = mutantColumns[column].getCritTrans();
+		if (critTrans.isDefinitelyKilled())
+			return new ReplayKey(transId, true, null);
+		else if (critTrans.getDefKillingSucc().isPresent())
+			return new ReplayKey(transId, false,
+					compiledHypothesis.toInputIndexes(critTrans.getDefKillingSucc().get()));
+		else
+			return null;
+	}
+
+	private void storeReplayResults(List<List<Symbol>> executedTests, boolean[] killedByExecuted) {
+		previousReplayResults = new HashMap<>();
+		for (int column = 0; column < mutantColumns.length; column++) {
+			ReplayKey key = replayKey(column, null);
+			if (key != null)
+				previousReplayResults.put(key, killedByExecuted[column]);
+		}
+		previousHypothesis = compiledHypothesis;
+		previousExecutedTests = executedTests;
+		nrPreviousExecutedTests = executedTests.size();
+	}
+
 	protected List<MutationTestCase> killMutants(
 			List<Pair<Integer, MealyMachine<Object, Symbol, Object, String>>> aliveMutants,
 			Set<Integer> aliveMutantIndexes) {
@@ -431,20 +618,48 @@ public abstract class AbstractMutationTestSelector extends TestSelector<Mutation
 
 	@Override
 	public List<MutationTestCase> evaluate(List<List<Symbol>> tests) {
+		if (useTrieBasedEvaluation)
+			return evaluateWithTrie(tests);
 		Stream<MutationTestCase> mutationTests = tests.parallelStream().map(this::evaluateMutationTest);
 		List<MutationTestCase> result = mutationTests.collect(Collectors.toList());
 		return result;
 	}
 
+	/**
+	 * Evaluates tests by inserting them into a prefix trie, which is traversed
+	 * once. The subtrees of the root are traversed in parallel. Computes the
+	 * same kill information as <code>evaluateMutationTest</code> (also if NFA
+	 * based evaluation is enabled).
+	 * 
+	 * @param tests
+	 *            tests to be evaluated
+	 * @return evaluated tests in the same order as the input
+	 */
+	private List<MutationTestCase> evaluateWithTrie(List<List<Symbol>> tests) {
+		PrefixTrie trie = new PrefixTrie();
+		for (int i = 0; i < tests.size(); i++)
+			trie.insert(compiledHypothesis.toInputIndexes(tests.get(i)), i);
+		MutationTestCase[] results = new MutationTestCase[tests.size()];
+		for (int testIndex = trie.getFirstWord(PrefixTrie.root()); testIndex >= 0; testIndex = trie
+				.getNextWord(testIndex))
+			results[testIndex] = new MutationTestCase(0.0, tests.get(testIndex), CompactBitSet.empty());
+		List<Integer> rootChildren = new ArrayList<>();
+		for (int child = trie.getFirstChild(PrefixTrie.root()); child >= 0; child = trie.getNextSibling(child))
+			rootChildren.add(child);
+		rootChildren.parallelStream().forEach(child -> new TrieEvaluation(trie, tests, results).visit(child, 0,
+				compiledHypothesis.getInitialState(), new int[0], 0));
+		return Arrays.asList(results);
+	}
+
 	private boolean doesTestKill(MealyMachine<Object, Symbol, Object, String> mutant, List<Symbol> test,
-			Word<String> hypOutput) {
+			int[] hypOutput) {
 		Object currentState = mutant.getInitialState();
 		for (int i = 0; i < test.size(); i++) {
 			Symbol currInput = test.get(i);
 			Object transition = mutant.getTransition(currentState, currInput);
 			String mutOutput = mutant.getTransitionOutput(transition);// mutant.getOutput(currentState,
 																		// currInput);
-			String currHypOutput = hypOutput.getSymbol(i);
+			String currHypOutput = compiledHypothesis.getOutputSymbol(hypOutput[i]);
 			currentState = mutant.getSuccessor(transition);
 			if (!mutOutput.equals(currHypOutput)) {
 				return true;
@@ -455,22 +670,20 @@ public abstract class AbstractMutationTestSelector extends TestSelector<Mutation
 
 	protected MutationTestCase evaluateMutationTest(List<Symbol> test) {
 
-		Set<Integer> killedMutants = new HashSet<>();
+		CompactBitSet.Builder killedMutants = killCollectors.get();
 
 		if (nfaBasedEvalPossible)
-			findKilledInNFA(test, killedMutants);
+			nfaSimulators.get().findKilled(compiledHypothesis.toInputIndexes(test), killedMutants);
 		else {
-			Triple<Word<String>, Set<Pair<Integer, Object>>, Set<Integer>> hypOutputAndKillInfo = computeOutputAndKillInfo(
-					hypothesis, test);
-			for (Pair<Integer, Object> defKilled : hypOutputAndKillInfo.getMiddle()) {
-				killedMutants.add(defKilled.getLeft());
-			}
-			for (int maybeKilledIndex : hypOutputAndKillInfo.getRight()) {
-				MealyMachine<Object, Symbol, Object, String> mut = mutantsWithIndexes.get(maybeKilledIndex).get();
-				if (doesTestKill(mut, test, hypOutputAndKillInfo.getLeft())) {
+			CompactBitSet.Builder maybeKilled = maybeKilledCollectors.get();
+			int[] hypOutput = computeOutputAndKillInfo(compiledHypothesis.toInputIndexes(test), killedMutants,
+					maybeKilled);
+			maybeKilled.buildAndClear().forEach(maybeKilledIndex -> {
+				MealyMachine<Object, Symbol, Object, String> mut = mutantColumns[maybeKilledIndex].get();
+				if (doesTestKill(mut, test, hypOutput)) {
 					killedMutants.add(maybeKilledIndex);
 				}
-			}
+			});
 		}
 
 		// for debugging/"testing"
@@ -493,118 +706,116 @@ public abstract class AbstractMutationTestSelector extends TestSelector<Mutation
 
 		int nrKilled = killedMutants.size();
 		return new MutationTestCase((double) nrKilled / mutantsWithIndexes.size(), test,
-				new ArrayList<>(killedMutants));
-	}
-
-	private void findKilledInNFA(List<Symbol> test, Set<Integer> killedMutants) {
-		List<Pair<State, Transition>> state = new ArrayList<>();
-		state.add(new ImmutablePair<>(this.mutNFA.init, null));
-		ArrayList<Integer> killedMutantList = new ArrayList<Integer>();
-		for (Symbol input : test) {
-			state = makeStep(state, input, killedMutantList);
-		}
-		for(Pair<State,Transition> st : state){
-			if(st.getRight() != null)
-				st.getRight().active = false;
-		}
-		killedMutants.addAll(killedMutantList);
+				killedMutants.buildAndClear());
 	}
 
-	private List<Pair<State, Transition>> makeStep(List<Pair<State, Transition>> state, Symbol input,
-			List<Integer> killedMutants) {
-		List<Pair<State, Transition>> nextState = new ArrayList<>();
-		List<Transition> removeFromActive = new ArrayList<Transition>();
-		for (Pair<State, Transition> s : state) {
-			makeSingleStep(nextState, s, input, killedMutants, removeFromActive);
-		}
-		for (Transition t : removeFromActive)
-			t.active = false;
-		return nextState;
-	}
-
-	private void makeSingleStep(List<Pair<State, Transition>> nextState, Pair<State, Transition> s, Symbol input,
-			List<Integer> killedMutants, List<Transition> removeFromActive) {
-		List<Transition> transitions = s.getLeft().transitions.get(input.getId());
-		boolean changed = false;
-		if (transitions != null) {
-			for (Transition t : transitions) {
-				if (t.active)
+	/**
+	 * Executes a test on the compiled hypothesis and computes which mutants are
+	 * killed by the test.
+	 * 
+	 * @param test
+	 *            input indexes of the test
+	 * @param defKilled
+	 *            receives the columns of mutants definitely killed by the test
+	 * @param maybeKilled
+	 *            receives the columns of mutants which need to be checked by
+	 *            executing them
+	 * @return output ids produced by the hypothesis
+	 */
+	private int[] computeOutputAndKillInfo(int[] test, CompactBitSet.Builder defKilled,
+			CompactBitSet.Builder maybeKilled) {
+		int currentState = compiledHypothesis.getInitialState();
+		int[] output = new int[test.length];
+		List<ActiveSuffix> activeMaybeKilled = new ArrayList<>();
+
+		for (int i = 0; i < test.length; i++) {
+			int input = test[i];
+			for (ActiveSuffix active : activeMaybeKilled) {
+				if (critTransIndex.getSuffixInput(active.pos) == input) {
+					active.pos++;
+				} else {
+					active.removed = true;
+				}
+				if (active.pos == active.end) {
+					active.removed = true;
+					defKilled.add(active.column);
+				}
+			}
+			int trans = compiledHypothesis.getTransitionId(currentState, input);
+			for (int entry = critTransIndex.getDefKilledStart(trans), end = critTransIndex
+					.getDefKilledEnd(trans); entry < end; entry++) {
+				defKilled.add(critTransIndex.getDefKilledColumn(entry));
+			}
+			for (int entry = critTransIndex.getMaybeKilledStart(trans), end = critTransIndex
+					.getMaybeKilledEnd(trans); entry < end; entry++) {
+				int column = critTransIndex.getMaybeKilledColumn(entry);
+				if (defKilled.contains(column)) {
 					continue;
-				killedMutants.addAll(t.killedMutants);
-				if (t.mutant) {
-					if (s.getRight() == null) {
-						t.active = true;
-						nextState.add(new ImmutablePair<>(t.target, t));
-					} else
-						nextState.add(new ImmutablePair<>(t.target, s.getRight()));
+				} else if (critTransIndex.hasSuffix(column)) {
+					if (!isActive(activeMaybeKilled, column)) {
+						activeMaybeKilled.add(new ActiveSuffix(column, critTransIndex.getSuffixStart(column),
+								critTransIndex.getSuffixEnd(column)));
+					}
 				} else {
-					nextState.add(new ImmutablePair<>(t.target, null));
+					maybeKilled.add(column);
 				}
-				changed = true;
 			}
+
+			activeMaybeKilled.removeIf(active -> active.removed);
+			output[i] = compiledHypothesis.getTransitionOutput(trans);
+			currentState = compiledHypothesis.getTransitionSuccessor(trans);
 		}
-		if (!changed) {
-			if (s.getRight() != null)
-				removeFromActive.add(s.getRight());
+		return output;
+	}
+
+	private boolean isActive(List<ActiveSuffix> activeMaybeKilled, int column) {
+		for (ActiveSuffix active : activeMaybeKilled) {
+			if (active.column == column)
+				return true;
 		}
+		return false;
 	}
 
-	private Triple<Word<String>, Set<Pair<Integer, Object>>, Set<Integer>> computeOutputAndKillInfo(
-			MealyMachine<Object, Symbol, Object, String> hypothesis, List<Symbol> test) {
-		Object currentState = hypothesis.getInitialState();
-		WordBuilder<String> output = new WordBuilder<>();
-		List<Pair<Integer, Object>> defKilled = new ArrayList<>(); // LinkedHashSet
-																	// for
-																	// fast
-																	// iteration
-		Set<Integer> defKilledIndexes = new HashSet<>();
-		List<Integer> maybeKilled = new ArrayList<Integer>();
-		HashMap<Integer, Pair<Object, LinkedList<Symbol>>> activeMaybeKilled = new HashMap<>();
+	/**
+	 * @return true if tests are evaluated by simulating the mutation NFA in
+	 *         the current round
+	 */
+	public boolean isNfaBasedEvalPossible() {
+		return nfaBasedEvalPossible;
+	}
 
-		for (int i = 0; i < test.size(); i++) {
-			Symbol s = test.get(i);
-			LinkedList<Integer> activeToRemove = new LinkedList<>();
-			for (Entry<Integer, Pair<Object, LinkedList<Symbol>>> entry : activeMaybeKilled.entrySet()) {
-				if (entry.getValue().getRight().peekFirst().equals(s)) {
-					entry.getValue().getRight().remove();
-				} else {
-					activeToRemove.add(entry.getKey());
-				}
-				if (entry.getValue().getRight().isEmpty()) {
-					activeToRemove.add(entry.getKey());
-					defKilled.add(new ImmutablePair<>(entry.getKey(), entry.getValue().getLeft()));
-					defKilledIndexes.add(entry.getKey());
-				}
-			}
-			Object trans = hypothesis.getTransition(currentState, s);
-			List<Integer> currDefKilled = transToDefinitelyKilled.get(trans);
-			if (currDefKilled != null) {
-				currDefKilled.forEach(currDefSingle -> {
-					defKilled.add(new ImmutablePair<>(currDefSingle, trans));
-					defKilledIndexes.add(currDefSingle);
-				});
-			}
-			List<Pair<Integer, Optional<List<Symbol>>>> currMaybeKilled = transToMaybeKilled.get(trans);
-			if (currMaybeKilled != null) {
-				for (Pair<Integer, Optional<List<Symbol>>> mKilled : currMaybeKilled) {
-					if (defKilledIndexes.contains(mKilled.getLeft())) {
-						continue;
-					} else if (mKilled.getRight().isPresent()) {
-						if (!activeMaybeKilled.containsKey(mKilled.getLeft())) {
-							activeMaybeKilled.put(mKilled.getLeft(),
-									new ImmutablePair<>(trans, new LinkedList<>(mKilled.getRight().get())));
-						}
-					} else {
-						maybeKilled.add(mKilled.getLeft());
-					}
-				}
-			}
+	public boolean isUseTrieBasedEvaluation() {
+		return useTrieBasedEvaluation;
+	}
 
-			activeToRemove.forEach(activeMaybeKilled::remove);
-			output.add(hypothesis.getTransitionOutput(trans));
-			currentState = hypothesis.getSuccessor(trans);
+	public void setUseTrieBasedEvaluation(boolean useTrieBasedEvaluation) {
+		this.useTrieBasedEvaluation = useTrieBasedEvaluation;
+	}
+
+	public boolean isUseIncrementalAnalysis() {
+		return useIncrementalAnalysis;
+	}
+
+	/**
+	 * Enables reusing the results of checking executed tests between rounds
+	 * of learning. Mutants whose critical transition leaves a state that has
+	 * not changed since the previous round (see
+	 * <code>HypothesisRefinement</code>) are then only checked against tests
+	 * executed since the previous round, all other mutants are checked against
+	 * all executed tests. This requires that the same list of executed tests
+	 * is passed in every round and that tests are only appended to it, as done
+	 * by <code>RandomCoverageSelectionEQOracle</code>.
+	 * 
+	 * @param useIncrementalAnalysis
+	 *            true if results should be reused
+	 */
+	public void setUseIncrementalAnalysis(boolean useIncrementalAnalysis) {
+		this.useIncrementalAnalysis = useIncrementalAnalysis;
+		if (!useIncrementalAnalysis) {
+			previousHypothesis = null;
+			previousReplayResults = null;
+			previousExecutedTests = null;
 		}
-		return new ImmutableTriple<>(output.toWord(), new LinkedHashSet<>(defKilled), new LinkedHashSet<>(maybeKilled));
 	}
 
 	public boolean isUseNfaBasedOptimization() {
@@ -615,4 +826,19 @@ public abstract class AbstractMutationTestSelector extends TestSelector<Mutation
 		this.useNfaBasedOptimization = useNfaBasedOptimization;
 	}
 
+	/**
+	 * Copies the suite sizes and the evaluation options to a copy of this
+	 * selector.
+	 * 
+	 * @param copy
+	 *            new selector with the same basic configuration
+	 * @return the copy
+	 */
+	protected <S extends AbstractMutationTestSelector> S copyOptions(S copy) {
+		copySuiteSizes(copy);
+		copy.setUseNfaBasedOptimization(useNfaBasedOptimization);
+		copy.setUseTrieBasedEvaluation(useTrieBasedEvaluation);
+		copy.setUseIncrementalAnalysis(useIncrementalAnalysis);
+		return copy;
+	}
 }
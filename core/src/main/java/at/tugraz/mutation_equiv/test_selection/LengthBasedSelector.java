@@ -61,4 +61,8 @@ public class LengthBasedSelector extends TestSelector<SimpleTestCase> {
 		return "length";
 	}
 
+	@Override
+	public LengthBasedSelector copy() {
+		return copySuiteSizes(new LengthBasedSelector(testSuiteSize));
+	}
 }
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.test_selection;
+
+import at.tugraz.mutation_equiv.mutation.CriticalTransitionIndex;
+import at.tugraz.mutation_equiv.util.CompiledMealy;
+
+/**
+ * The mutation NFA used for NFA-based mutation analysis, compiled into flat
+ * arrays. It consists of the compiled
+ * hypothesis, whose transitions are labelled with definitely killed
+ * mutants, and of one chain of states per maybe-killed mutant. The chain
+ * starts with an additional transition from the pre state of the critical
+ * transition and follows the definitely-killing suffix, its last
+ * transition kills the mutant.
+ * 
+ * Transitions of hypothesis states are stored in compressed sparse row
+ * format indexed by <code>state * |I| + input</code>. Every chain state
+ * has exactly one transition which is stored after the transitions of
+ * hypothesis states (the last state of a chain has a transition with input
+ * -1 that is never taken). The NFA is immutable, simulation state is kept
+ * in <code>NFASimulator</code>, so that a single NFA may be shared by all
+ * threads evaluating tests.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class MutationNFA {
+	final int initialState;
+	final int nrHypStates;
+	final int nrInputs;
+	final int nrEntryTransitions;
+	final int[] hypTransOffsets;
+	// first transition of chain states
+	final int chainTransBase;
+	final int[] transTarget;
+	final int[] transInput;
+	final boolean[] transMutant;
+	final int[] transKilledStart;
+	final int[] transKilledEnd;
+	final int[] killedColumns;
+
+	/**
+	 * Creates the NFA, requires that all maybe-killed mutants have a
+	 * definitely-killing suffix.
+	 * 
+	 * @param hypothesis
+	 *            compiled hypothesis
+	 * @param critTransIndex
+	 *            index of the mutants to be included
+	 */
+	public MutationNFA(CompiledMealy hypothesis, CriticalTransitionIndex critTransIndex) {
+		nrHypStates = hypothesis.size();
+		nrInputs = hypothesis.getNrInputs();
+		initialState = hypothesis.getInitialState();
+		int nrHypTrans = hypothesis.getNrTransitions();
+		int nrEntries = 0;
+		int nrChainStates = 0;
+		int nrKilled = 0;
+		for (int trans = 0; trans < nrHypTrans; trans++) {
+			nrKilled += critTransIndex.getDefKilledEnd(trans) - critTransIndex.getDefKilledStart(trans);
+			for (int entry = critTransIndex.getMaybeKilledStart(trans); entry < critTransIndex
+					.getMaybeKilledEnd(trans); entry++) {
+				int column = critTransIndex.getMaybeKilledColumn(entry);
+				nrEntries++;
+				nrKilled++;
+				nrChainStates += critTransIndex.getSuffixEnd(column) - critTransIndex.getSuffixStart(column)
+						+ 1;
+			}
+		}
+		nrEntryTransitions = nrEntries;
+		chainTransBase = nrHypTrans + nrEntries;
+		int nrTrans = chainTransBase + nrChainStates;
+		hypTransOffsets = new int[nrHypTrans + 1];
+		transTarget = new int[nrTrans];
+		transInput = new int[nrTrans];
+		transMutant = new boolean[nrTrans];
+		transKilledStart = new int[nrTrans];
+		transKilledEnd = new int[nrTrans];
+		killedColumns = new int[nrKilled];
+
+		int t = 0;
+		int nextChainState = nrHypStates;
+		int nextKilled = 0;
+		for (int trans = 0; trans < nrHypTrans; trans++) {
+			hypTransOffsets[trans] = t;
+			int input = hypothesis.getTransitionInput(trans);
+			// transitions to chains first, then the hypothesis transition
+			for (int entry = critTransIndex.getMaybeKilledStart(trans); entry < critTransIndex
+					.getMaybeKilledEnd(trans); entry++) {
+				int column = critTransIndex.getMaybeKilledColumn(entry);
+				int suffixStart = critTransIndex.getSuffixStart(column);
+				int suffixLength = critTransIndex.getSuffixEnd(column) - suffixStart;
+				int chainStart = nextChainState;
+				nextChainState += suffixLength + 1;
+				transTarget[t] = chainStart;
+				transInput[t] = input;
+				transMutant[t] = true;
+				transKilledStart[t] = nextKilled;
+				if (suffixLength == 0)
+					killedColumns[nextKilled++] = column;
+				transKilledEnd[t] = nextKilled;
+				t++;
+				for (int i = 0; i <= suffixLength; i++) {
+					int chainTrans = chainTransBase + chainStart + i - nrHypStates;
+					transMutant[chainTrans] = true;
+					transKilledStart[chainTrans] = nextKilled;
+					if (i < suffixLength) {
+						transTarget[chainTrans] = chainStart + i + 1;
+						transInput[chainTrans] = critTransIndex.getSuffixInput(suffixStart + i);
+						if (i == suffixLength - 1)
+							killedColumns[nextKilled++] = column;
+					} else {
+						transTarget[chainTrans] = -1;
+						transInput[chainTrans] = -1;
+					}
+					transKilledEnd[chainTrans] = nextKilled;
+				}
+			}
+			transTarget[t] = hypothesis.getTransitionSuccessor(trans);
+			transInput[t] = input;
+			transKilledStart[t] = nextKilled;
+			for (int entry = critTransIndex.getDefKilledStart(trans); entry < critTransIndex
+					.getDefKilledEnd(trans); entry++)
+				killedColumns[nextKilled++] = critTransIndex.getDefKilledColumn(entry);
+			transKilledEnd[t] = nextKilled;
+			t++;
+		}
+		hypTransOffsets[nrHypTrans] = t;
+	}
+
+	public int getNrTransitions() {
+		return transTarget.length;
+	}
+}
@@ -24,13 +24,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import at.tugraz.mutation_equiv.MutationTestCase;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
+import at.tugraz.mutation_equiv.util.CompactBitSet;
 import net.automatalib.automata.transout.MealyMachine;
 import net.automatalib.words.Alphabet;
 import net.automatalib.words.impl.Symbol;
@@ -52,7 +55,8 @@ public class MutationSuiteBasedSelector extends AbstractMutationTestSelector {
 		private int testSuiteSize = 0;
 		private int providedTests = 0;
 		// private Set<Integer> mutantIndexes;
-		private boolean[] aliveMutants = null;
+		// bitset of the columns of alive mutants
+		private long[] aliveMutants = null;
 		private List<MutationTestCase> tests;
 		private boolean noMoreKillsPossible = false;
 		private Map<Integer, MutantProducer> mutantsWithIndexes;
@@ -60,27 +64,94 @@ public class MutationSuiteBasedSelector extends AbstractMutationTestSelector {
 		private Iterator<MutationTestCase> remainingIterator = null;
 		private MutationSuiteBasedSelector sel = null;
 		private List<MutationTestCase> additionalTestsForAlive = null;
+		// lazy greedy: tests which have already been selected greedily
+		private boolean[] selected = null;
+		// max-heap of test indexes ordered by (possibly stale) kill counts,
+		// ties are broken by the lower index
+		private int[] heap = null;
+		private int heapSize = 0;
+		private int[] staleGains = null;
+		// parallel greedy: tests which may still kill alive mutants
+		private ForkJoinPool pool = null;
+		private int[] candidates = null;
+		private int candidateCount = 0;
+		private int[] gains = null;
 
 		// don't instantiate from "outside"
 		private LazyMutationBasedSelector(int testSuiteSize, Map<Integer, MutantProducer> mutantsWithIndexes,
 				List<MutationTestCase> tests, boolean killAliveMutants, MutationSuiteBasedSelector sel) {
 			this.testSuiteSize = testSuiteSize;
 			// this.mutantIndexes = new HashSet<>(mutantsWithIndexes.keySet());
-			this.aliveMutants = convertToBooleanArray(mutantsWithIndexes.keySet());
+			this.aliveMutants = convertToBitSet(sel.mutantColumns, mutantsWithIndexes);
 			this.mutantsWithIndexes = mutantsWithIndexes;
 			this.tests = tests;
 			this.killAliveMutants = killAliveMutants;
 			this.sel = sel;
+			this.pool = sel.selectionPool();
+			if (pool == null)
+				initHeap();
+			else
+				initCandidates();
 		}
 
-		private boolean[] convertToBooleanArray(Set<Integer> mutantIndexes) {
-			List<Integer> indexList = mutantIndexes.stream().sorted().collect(Collectors.toList());
-			boolean[] aliveMuts = new boolean[indexList.get(indexList.size()-1)+1];
-			for(Integer i : indexList){
-				aliveMuts[i] = true;
+		private void initCandidates() {
+			selected = new boolean[tests.size()];
+			candidateCount = tests.size();
+			candidates = IntStream.range(0, candidateCount).toArray();
+			gains = new int[candidateCount];
+		}
+
+		/**
+		 * Initialises the heap used for lazy greedy selection. The number of
+		 * newly killed mutants of a test can only decrease after a selection,
+		 * thus it suffices to re-evaluate the test at the top of the heap.
+		 */
+		private void initHeap() {
+			selected = new boolean[tests.size()];
+			staleGains = new int[tests.size()];
+			heap = new int[tests.size()];
+			for (int i = 0; i < tests.size(); i++) {
+				staleGains[i] = tests.get(i).killedMutants.countCommon(aliveMutants);
+				if (staleGains[i] > 0)
+					heap[heapSize++] = i;
+			}
+			for (int i = heapSize / 2 - 1; i >= 0; i--)
+				siftDown(i);
+		}
+
+		private boolean before(int testA, int testB) {
+			return staleGains[testA] > staleGains[testB] || staleGains[testA] == staleGains[testB] && testA < testB;
+		}
+
+		private void siftDown(int pos) {
+			int test = heap[pos];
+			while (true) {
+				int child = 2 * pos + 1;
+				if (child >= heapSize)
+					break;
+				if (child + 1 < heapSize && before(heap[child + 1], heap[child]))
+					child++;
+				if (!before(heap[child], test))
+					break;
+				heap[pos] = heap[child];
+				pos = child;
+			}
+			heap[pos] = test;
+		}
+
+		private void removeTop() {
+			heap[0] = heap[--heapSize];
+			if (heapSize > 0)
+				siftDown(0);
+		}
+
+		private long[] convertToBitSet(MutantProducer[] mutantColumns, Map<Integer, MutantProducer> mutantsWithIndexes) {
+			// mutants killed by previously executed tests are not contained in mutantsWithIndexes
+			long[] aliveMuts = new long[CompactBitSet.wordsFor(mutantColumns.length)];
+			for (int column = 0; column < mutantColumns.length; column++) {
+				if (mutantsWithIndexes.containsKey(mutantColumns[column].getId()))
+					aliveMuts[column >>> 6] |= 1L << column;
 			}
-//			for (int i = 0; i < aliveMuts.length; i++)
-//				aliveMuts[i] = true;
 			return aliveMuts;
 		}
 
@@ -93,7 +164,7 @@ public class MutationSuiteBasedSelector extends AbstractMutationTestSelector {
 		@Override
 		public List<Symbol> next() {
 			if (!noMoreKillsPossible && providedTests < testSuiteSize) {
-				MutationTestCase bestTest = findTestWithMostKills(tests);
+				MutationTestCase bestTest = findTestWithMostKills();
 				if (bestTest == null) {
 					noMoreKillsPossible = true;
 					// System.out.println("Combined mutation score of " +
@@ -102,16 +173,15 @@ public class MutationSuiteBasedSelector extends AbstractMutationTestSelector {
 					// mutantIndexes.size()) / mutantsWithIndexes.size());
 				} else {
 					providedTests++;
-					tests.remove(bestTest);
 					return bestTest.getTrace();
 				}
 			}
 			if (killAliveMutants && !hasAliveMutans()) {
 				if (additionalTestsForAlive == null) {
 					Set<Integer> mutantIndexes = new HashSet<>();
-					for(int i = 0; i < aliveMutants.length; i++){
-						if(aliveMutants[i]){
-							mutantIndexes.add(i);
+					for (int i = 0; i < sel.mutantColumns.length; i++) {
+						if ((aliveMutants[i >>> 6] & (1L << i)) != 0) {
+							mutantIndexes.add(sel.mutantColumns[i].getId());
 						}
 					}
 					List<Pair<Integer, MealyMachine<Object, Symbol, Object, String>>> aliveMutants = mutantsWithIndexes
@@ -129,8 +199,8 @@ public class MutationSuiteBasedSelector extends AbstractMutationTestSelector {
 			}
 			if (providedTests < testSuiteSize) {
 				if (remainingIterator == null) {
-					remainingIterator = tests.stream()
-							.sorted((o1, o2) -> o1.score < o2.score ? 1 : o1.score > o2.score ? -1 : 0)
+					remainingIterator = IntStream.range(0, tests.size()).filter(i -> !selected[i])
+							.mapToObj(tests::get).sorted((o1, o2) -> o1.score < o2.score ? 1 : o1.score > o2.score ? -1 : 0)
 							.limit(testSuiteSize - providedTests).iterator();
 				}
 				providedTests++;
@@ -141,38 +211,56 @@ public class MutationSuiteBasedSelector extends AbstractMutationTestSelector {
 		}
 
 		private boolean hasAliveMutans() {
-			for (boolean m : aliveMutants){
-				if (m)
+			for (long m : aliveMutants){
+				if (m != 0)
 					return true;
 			}
 			return false;
 		}
 
-		private MutationTestCase findTestWithMostKills(List<MutationTestCase> mutationTests) {
-
-			int highestKillCount = 0;
-			MutationTestCase bestTest = null;
-			for (MutationTestCase t : mutationTests) {
-				int nrKilled = 0;
-				for (int killed : t.killedMutants) {					
-					if (aliveMutants[killed] == true)
-						nrKilled++;
+		private MutationTestCase findTestWithMostKills() {
+			if (pool != null)
+				return findTestWithMostKillsParallel();
+			while (heapSize > 0) {
+				int candidate = heap[0];
+				int nrKilled = tests.get(candidate).killedMutants.countCommon(aliveMutants);
+				if (nrKilled == 0) {
+					removeTop();
+					continue;
 				}
-				if (nrKilled > highestKillCount) {
-					highestKillCount = nrKilled;
-					bestTest = t;
+				staleGains[candidate] = nrKilled;
+				siftDown(0);
+				// gains of all other tests are upper bounds, so the candidate
+				// is the best test if it stays on top
+				if (heap[0] == candidate) {
+					removeTop();
+					selected[candidate] = true;
+					MutationTestCase bestTest = tests.get(candidate);
+					bestTest.killedMutants.removeFrom(aliveMutants);
+					return bestTest;
 				}
-				// else if (nrKilled == highestKillCount && largestLengthOfBest
-				// < t.trace.size()) {
-				// highestKillCount = nrKilled;
-				// largestLengthOfBest = t.trace.size();
-				// bestTest = t;
-				// }
 			}
-			if (bestTest != null) {
-				for (int i : bestTest.killedMutants)
-					aliveMutants[i] = false;
+			return null;
+		}
+
+		private MutationTestCase findTestWithMostKillsParallel() {
+			int bestPos = ParallelMutationSuiteBasedSelector.findBestCandidate(pool, tests, candidates,
+					candidateCount, aliveMutants, gains);
+			if (bestPos < 0) {
+				candidateCount = 0;
+				return null;
+			}
+			int bestIndex = candidates[bestPos];
+			// tests which do not kill alive mutants will never do so
+			int newCount = 0;
+			for (int pos = 0; pos < candidateCount; pos++) {
+				if (pos != bestPos && gains[pos] > 0)
+					candidates[newCount++] = candidates[pos];
 			}
+			candidateCount = newCount;
+			selected[bestIndex] = true;
+			MutationTestCase bestTest = tests.get(bestIndex);
+			bestTest.killedMutants.removeFrom(aliveMutants);
 			return bestTest;
 		}
 
@@ -191,6 +279,16 @@ public class MutationSuiteBasedSelector extends AbstractMutationTestSelector {
 
 	private boolean killAliveMutants = false;
 
+	/**
+	 * Pool used for computing the tests killing most mutants. If null, lazy
+	 * greedy selection is performed sequentially.
+	 * 
+	 * @return the pool used for greedy selection
+	 */
+	protected ForkJoinPool selectionPool() {
+		return null;
+	}
+
 	@Override
 	public Iterator<List<Symbol>> select(List<MutationTestCase> tests) {
 		int effectiveTestSuiteSize = testSuiteSize;
@@ -219,4 +317,8 @@ public class MutationSuiteBasedSelector extends AbstractMutationTestSelector {
 		this.killAliveMutants = killAliveMutants;
 	}
 
+	@Override
+	public MutationSuiteBasedSelector copy() {
+		return copyOptions(new MutationSuiteBasedSelector(testSuiteSize, inputAlphabet, killAliveMutants));
+	}
 }
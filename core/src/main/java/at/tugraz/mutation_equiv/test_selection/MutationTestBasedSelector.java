@@ -63,4 +63,8 @@ public class MutationTestBasedSelector extends AbstractMutationTestSelector {
 		return "mutation-test-based";
 	}
 
+	@Override
+	public MutationTestBasedSelector copy() {
+		return copyOptions(new MutationTestBasedSelector(testSuiteSize, inputAlphabet));
+	}
 }
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.test_selection;
+
+import java.util.Arrays;
+
+import at.tugraz.mutation_equiv.util.CompactBitSet;
+
+/**
+ * Per-thread simulation state for a <code>MutationNFA</code>. The current
+ * and next set of NFA states are stored in two pairs of int arrays which
+ * are swapped after each step. For each NFA state, the simulator stores
+ * the transition entering the chain of a mutant, if the state is part of a
+ * chain. While a chain is being executed, its entry transition is active,
+ * i.e. it is not taken again. Active transitions are marked by the current
+ * generation, which is incremented for every test, so that simulating a
+ * test does not allocate any memory.
+ * 
+ * Simulators are not thread-safe, every thread needs its own simulator.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class NFASimulator {
+	private final MutationNFA nfa;
+	private int[] currentStates;
+	private int[] currentOrigins;
+	private int[] nextStates;
+	private int[] nextOrigins;
+	private int[] deactivate;
+	private final int[] activeGeneration;
+	private int generation = 0;
+
+	public NFASimulator(MutationNFA nfa) {
+		this.nfa = nfa;
+		// at most one state per active chain plus one hypothesis state
+		int capacity = nfa.nrEntryTransitions + 1;
+		currentStates = new int[capacity];
+		currentOrigins = new int[capacity];
+		nextStates = new int[capacity];
+		nextOrigins = new int[capacity];
+		deactivate = new int[capacity];
+		activeGeneration = new int[nfa.getNrTransitions()];
+	}
+
+	/**
+	 * Executes a test on the NFA.
+	 * 
+	 * @param test
+	 *            input indexes of the test
+	 * @param killedMutants
+	 *            receives the columns of the mutants killed by the test
+	 */
+	public void findKilled(int[] test, CompactBitSet.Builder killedMutants) {
+		if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(activeGeneration, 0);
+			generation = 0;
+		}
+		generation++;
+		int nrCurrent = 1;
+		currentStates[0] = nfa.initialState;
+		currentOrigins[0] = -1;
+		for (int input : test) {
+			int nrNext = 0;
+			int nrDeactivate = 0;
+			for (int k = 0; k < nrCurrent; k++) {
+				int state = currentStates[k];
+				int origin = currentOrigins[k];
+				int transStart;
+				int transEnd;
+				if (state < nfa.nrHypStates) {
+					transStart = nfa.hypTransOffsets[state * nfa.nrInputs + input];
+					transEnd = nfa.hypTransOffsets[state * nfa.nrInputs + input + 1];
+				} else {
+					transStart = nfa.chainTransBase + state - nfa.nrHypStates;
+					transEnd = nfa.transInput[transStart] == input ? transStart + 1 : transStart;
+				}
+				boolean changed = false;
+				for (int t = transStart; t < transEnd; t++) {
+					if (activeGeneration[t] == generation)
+						continue;
+					for (int killed = nfa.transKilledStart[t]; killed < nfa.transKilledEnd[t]; killed++)
+						killedMutants.add(nfa.killedColumns[killed]);
+					nextStates[nrNext] = nfa.transTarget[t];
+					if (nfa.transMutant[t]) {
+						if (origin < 0) {
+							activeGeneration[t] = generation;
+							nextOrigins[nrNext] = t;
+						} else
+							nextOrigins[nrNext] = origin;
+					} else {
+						nextOrigins[nrNext] = -1;
+					}
+					nrNext++;
+					changed = true;
+				}
+				if (!changed && origin >= 0)
+					deactivate[nrDeactivate++] = origin;
+			}
+			for (int i = 0; i < nrDeactivate; i++)
+				activeGeneration[deactivate[i]] = 0;
+			int[] swap = currentStates;
+			currentStates = nextStates;
+			nextStates = swap;
+			swap = currentOrigins;
+			currentOrigins = nextOrigins;
+			nextOrigins = swap;
+			nrCurrent = nrNext;
+		}
+	}
+}
@@ -80,4 +80,8 @@ public class NonProbMutationSelector extends AbstractMutationTestSelector{
 		return "mutation-non-prob";
 	}
 
+	@Override
+	public NonProbMutationSelector copy() {
+		return copyOptions(new NonProbMutationSelector(testSuiteSize, inputAlphabet));
+	}
 }
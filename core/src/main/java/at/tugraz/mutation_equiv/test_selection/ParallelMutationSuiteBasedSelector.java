@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.test_selection;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import at.tugraz.mutation_equiv.MutationTestCase;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.impl.Symbol;
+
+/**
+ * Variant of the mutation-suite-based selector which computes the number of
+ * newly killed mutants of all remaining tests in parallel in every greedy
+ * step. The candidate tests are partitioned and the best test of each
+ * partition is determined on a fork-join pool. Ties are broken in favour of
+ * the test with the lowest index, thus the selected tests are the same as for
+ * sequential selection, independent of the number of threads.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class ParallelMutationSuiteBasedSelector extends MutationSuiteBasedSelector {
+
+	// number of candidates below which gains are computed sequentially
+	private static final int PARTITION_SIZE = 512;
+
+	private static class BestCandidateTask extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+		private List<MutationTestCase> tests;
+		private int[] candidates;
+		private long[] aliveMutants;
+		private int[] gains;
+		private int from;
+		private int to;
+
+		public BestCandidateTask(List<MutationTestCase> tests, int[] candidates, long[] aliveMutants, int[] gains,
+				int from, int to) {
+			this.tests = tests;
+			this.candidates = candidates;
+			this.aliveMutants = aliveMutants;
+			this.gains = gains;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= PARTITION_SIZE) {
+				int bestPos = -1;
+				for (int pos = from; pos < to; pos++) {
+					gains[pos] = tests.get(candidates[pos]).killedMutants.countCommon(aliveMutants);
+					if (gains[pos] > 0 && (bestPos < 0 || gains[pos] > gains[bestPos]))
+						bestPos = pos;
+				}
+				return bestPos;
+			}
+			int middle = (from + to) >>> 1;
+			BestCandidateTask left = new BestCandidateTask(tests, candidates, aliveMutants, gains, from, middle);
+			BestCandidateTask right = new BestCandidateTask(tests, candidates, aliveMutants, gains, middle, to);
+			left.fork();
+			int bestRight = right.compute();
+			int bestLeft = left.join();
+			// candidates are ordered by index, so left wins ties
+			if (bestLeft < 0 || bestRight >= 0 && gains[bestRight] > gains[bestLeft])
+				return bestRight;
+			return bestLeft;
+		}
+	}
+
+	private ForkJoinPool pool;
+
+	public ParallelMutationSuiteBasedSelector(int testSuiteSize, Alphabet<Symbol> inputAlphabet,
+			boolean killAliveMutants) {
+		this(testSuiteSize, inputAlphabet, killAliveMutants, false);
+	}
+
+	public ParallelMutationSuiteBasedSelector(int testSuiteSize, Alphabet<Symbol> inputAlphabet,
+			boolean killAliveMutants, boolean useNfaBasedOptimization) {
+		this(testSuiteSize, inputAlphabet, killAliveMutants, useNfaBasedOptimization, ForkJoinPool.commonPool());
+	}
+
+	public ParallelMutationSuiteBasedSelector(int testSuiteSize, Alphabet<Symbol> inputAlphabet,
+			boolean killAliveMutants, boolean useNfaBasedOptimization, ForkJoinPool pool) {
+		super(testSuiteSize, inputAlphabet, killAliveMutants, useNfaBasedOptimization);
+		this.pool = pool;
+	}
+
+	@Override
+	protected ForkJoinPool selectionPool() {
+		return pool;
+	}
+
+	/**
+	 * Computes the number of alive mutants killed by each candidate test and
+	 * returns the position of the candidate killing most mutants.
+	 * 
+	 * @param pool
+	 *            pool used for computation
+	 * @param tests
+	 *            all tests
+	 * @param candidates
+	 *            indexes of candidate tests in ascending order
+	 * @param candidateCount
+	 *            number of valid entries in candidates
+	 * @param aliveMutants
+	 *            bitset of alive mutant columns
+	 * @param gains
+	 *            receives the number of killed mutants for each candidate
+	 *            position
+	 * @return position of the best candidate in candidates or -1 if no
+	 *         candidate kills any alive mutant
+	 */
+	static int findBestCandidate(ForkJoinPool pool, List<MutationTestCase> tests, int[] candidates,
+			int candidateCount, long[] aliveMutants, int[] gains) {
+		if (candidateCount == 0)
+			return -1;
+		return pool.invoke(new BestCandidateTask(tests, candidates, aliveMutants, gains, 0, candidateCount));
+	}
+
+	/**
+	 * The copy shares the pool with this selector.
+	 */
+	@Override
+	public ParallelMutationSuiteBasedSelector copy() {
+		return copyOptions(new ParallelMutationSuiteBasedSelector(testSuiteSize, inputAlphabet,
+				isKillAliveMutants(), useNfaBasedOptimization, pool));
+	}
+}
@@ -52,4 +52,8 @@ public class RandomSelector extends TestSelector<SimpleTestCase> {
 		return "random";
 	}
 
+	@Override
+	public RandomSelector copy() {
+		return copySuiteSizes(new RandomSelector(testSuiteSize));
+	}
 }
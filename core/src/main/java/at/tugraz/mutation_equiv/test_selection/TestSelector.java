@@ -19,8 +19,10 @@ package at.tugraz.mutation_equiv.test_selection;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 
+import at.tugraz.mutation_equiv.HypothesisContext;
 import at.tugraz.mutation_equiv.TestCase;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
 import net.automatalib.automata.transout.MealyMachine;
@@ -60,6 +62,17 @@ public abstract class TestSelector<T extends TestCase> {
 
 	protected List<MutantProducer> mutants = null;
 	protected MealyMachine<Object,Symbol,Object,String> hypothesis = null;
+	protected HypothesisContext context = null;
+	
+	/**
+	 * Passes information about the hypothesis of the current round, which is
+	 * used by <code>setCurrentMachines</code> if it is called with the same hypothesis.
+	 * 
+	 * @param context context of the hypothesis passed next
+	 */
+	public void setHypothesisContext(HypothesisContext context){
+		this.context = context;
+	}
 	
 	@SuppressWarnings("unchecked")
 	public void 
@@ -69,6 +82,18 @@ public abstract class TestSelector<T extends TestCase> {
 		this.hypothesis = (MealyMachine<Object,Symbol,Object,String>)hypothesis;
 	}
 	
+	/**
+	 * Updates the selector with tests executed since the last call of 
+	 * <code>setCurrentMachines</code> for the current hypothesis and mutants, 
+	 * e.g. between selecting from chunks of generated tests. Selectors may 
+	 * only check the tests appended to <code>executedTests</code> since then.
+	 * 
+	 * @param executedTests all tests executed so far
+	 */
+	public void updateExecutedTests(List<List<Symbol>> executedTests){
+		setCurrentMachines(mutants, hypothesis, executedTests);
+	}
+	
 	public abstract Iterator<List<Symbol>> select(List<T> tests);
 	
 	public abstract List<T> evaluate(List<List<Symbol>> tests);
@@ -83,4 +108,18 @@ public abstract class TestSelector<T extends TestCase> {
 		return testSuiteSize;
 	}
 	public abstract String description();
+	
+	/**
+	 * Creates a selector with the same configuration, but without any state
+	 * of previous rounds, e.g. for learning with different seeds in parallel.
+	 * 
+	 * @return an independent copy of this selector
+	 */
+	public abstract TestSelector<T> copy();
+	
+	protected <S extends TestSelector<T>> S copySuiteSizes(S copy){
+		copy.testSuiteSize = testSuiteSize;
+		copy.initialSizes = initialSizes == null ? null : new LinkedList<>(initialSizes);
+		return copy;
+	}
 }
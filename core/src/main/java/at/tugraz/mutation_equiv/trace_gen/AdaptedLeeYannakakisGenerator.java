@@ -187,4 +187,12 @@ public class AdaptedLeeYannakakisGenerator implements TraceGenerator{
 			List<MutantProducer> mutants) {
 		return generateTraces(1, hypothesis, mutants).get(0);
 	}
+
+	@Override
+	public AdaptedLeeYannakakisGenerator copy() {
+		AdaptedLeeYannakakisGenerator copy = new AdaptedLeeYannakakisGenerator(generatorPath, prefixStrategy,
+				expectedRandInfix, inputAlphabet);
+		copy.updateRandomSeed(seed);
+		return copy;
+	}
 }
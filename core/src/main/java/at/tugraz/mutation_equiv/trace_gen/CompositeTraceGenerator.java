@@ -23,6 +23,7 @@ import java.util.Random;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import at.tugraz.mutation_equiv.HypothesisContext;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
 import net.automatalib.automata.transout.MealyMachine;
 import net.automatalib.words.impl.Symbol;
@@ -33,7 +34,8 @@ import net.automatalib.words.impl.Symbol;
  * corresponding weight. 
  * 
  * It implements a batch mode which should be used if a test-case generator requires 
- * precomputation for generating a single test. 
+ * precomputation for generating a single test. In parallel generation, all generators
+ * are prepared once, thus the batch mode does not apply.
  * 
  * @author Martin Tappler
  *
@@ -64,6 +66,12 @@ public class CompositeTraceGenerator implements TraceGenerator {
 		weightChoice = new Random(seed);
 	}
 
+	@Override
+	public void setHypothesisContext(HypothesisContext context) {
+		for(Pair<TraceGenerator, Integer> g : generators)
+			g.getLeft().setHypothesisContext(context);
+	}
+
 	@Override
 	public String description() {
 		List<String> genDescs = new ArrayList<>();
@@ -75,11 +83,29 @@ public class CompositeTraceGenerator implements TraceGenerator {
 	@Override
 	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
 			List<MutantProducer> mutants) {
-		TraceGenerator chosenGen = chooseGenerator();
+		TraceGenerator chosenGen = chooseGenerator(weightChoice);
 		return chosenGen.generateTrace(hypothesis, mutants);
 	}
-	private TraceGenerator chooseGenerator() {
-		int chosenWeight = weightChoice.nextInt(overallWeight);
+	@Override
+	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants, Random rand) {
+		TraceGenerator chosenGen = chooseGenerator(rand);
+		return chosenGen.generateTrace(hypothesis, mutants, rand);
+	}
+	@Override
+	public void prepare(MealyMachine<Object, Symbol, ?, String> hypothesis, List<MutantProducer> mutants) {
+		for(Pair<TraceGenerator, Integer> g : generators)
+			g.getLeft().prepare(hypothesis, mutants);
+	}
+	@Override
+	public boolean supportsParallelGeneration() {
+		for(Pair<TraceGenerator, Integer> g : generators)
+			if(!g.getLeft().supportsParallelGeneration())
+				return false;
+		return true;
+	}
+	private TraceGenerator chooseGenerator(Random rand) {
+		int chosenWeight = rand.nextInt(overallWeight);
 		TraceGenerator chosenGen = null;
 		for(Pair<TraceGenerator, Integer> g : generators){
 			if(chosenWeight < g.getRight()){
@@ -108,4 +134,12 @@ public class CompositeTraceGenerator implements TraceGenerator {
 			return TraceGenerator.super.generateTraces(nrTraces, hypothesis, mutants);
 	}
 
+	@Override
+	public CompositeTraceGenerator copy() {
+		@SuppressWarnings("unchecked")
+		Pair<TraceGenerator, Integer>[] generatorCopies = new Pair[generators.length];
+		for(int i = 0; i < generators.length; i++)
+			generatorCopies[i] = Pair.of(generators[i].getLeft().copy(), generators[i].getRight());
+		return new CompositeTraceGenerator(batchMode, generatorCopies);
+	}
 }
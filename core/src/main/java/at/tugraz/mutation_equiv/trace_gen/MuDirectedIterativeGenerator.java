@@ -21,7 +21,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.function.Supplier;
 
+import at.tugraz.mutation_equiv.HypothesisContext;
 import at.tugraz.mutation_equiv.equiv_check.EquivalenceChecker;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
 import net.automatalib.automata.transout.MealyMachine;
@@ -48,6 +50,8 @@ public class MuDirectedIterativeGenerator implements TraceGenerator {
 	private double stopProb = 0;
 	private double retryProb = 0;
 	private EquivalenceChecker equivChecker;
+	private ThreadLocal<EquivalenceChecker> parallelCheckers;
+	private volatile HypothesisContext hypothesisContext;
 	private RandomWordGenerator randomWordGen;
 	private int maxTestLength = 0;
 	private RandomWordGenerator randomWordGenMaxLen;
@@ -58,11 +62,28 @@ public class MuDirectedIterativeGenerator implements TraceGenerator {
 		this.stopProb = stopProb;
 		this.retryProb = retryProb;
 		this.equivChecker = new EquivalenceChecker(inputAlphabet,true);
+		// checkers are not thread-safe, so every thread generating tests in parallel uses its own 
+		this.parallelCheckers = ThreadLocal.withInitial(() -> new EquivalenceChecker(inputAlphabet,true));
 		this.maxTestLength = maxTestLength;
 		this.randomWordGen = new RandomWordGenerator(inputAlphabet, randGen, maxRandWordLen);
 		this.randomWordGenMaxLen = new RandomWordGenerator(inputAlphabet, randGen, maxTestLength);
 	}
 
+	@Override
+	public void setHypothesisContext(HypothesisContext context) {
+		equivChecker.setHypothesisContext(context);
+		hypothesisContext = context;
+	}
+
+	private EquivalenceChecker parallelChecker(MealyMachine<Object, Symbol, ?, String> hypothesis) {
+		EquivalenceChecker checker = parallelCheckers.get();
+		// the checkers of the generating threads are only updated with the context once they are used
+		HypothesisContext context = hypothesisContext;
+		if(context != null && (Object) context.getHypothesis() == hypothesis)
+			checker.setHypothesisContext(context);
+		return checker;
+	}
+
 	@Override
 	public void updateRandomSeed(long seed) {
 		this.randomWordGen.updateRandomSeed(seed);
@@ -91,30 +112,56 @@ public class MuDirectedIterativeGenerator implements TraceGenerator {
 	@Override
 	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
 			List<MutantProducer> mutants) {
+		return generateTrace(hypothesis, mutants, randGen, 
+				() -> randomWordGen.generateTrace(hypothesis, mutants),
+				() -> randomWordGenMaxLen.generateTrace(hypothesis, mutants), equivChecker);
+	}
+
+	@Override
+	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants, Random rand) {
+		return generateTrace(hypothesis, mutants, rand, 
+				() -> randomWordGen.generateTrace(hypothesis, mutants, rand),
+				() -> randomWordGenMaxLen.generateTrace(hypothesis, mutants, rand), parallelChecker(hypothesis));
+	}
+
+	private List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants, Random rand, Supplier<List<Symbol>> randomWordGen,
+			Supplier<List<Symbol>> randomWordGenMaxLen, EquivalenceChecker checker) {
 		if(!mutants.isEmpty()){
 			List<Symbol> trace = new ArrayList<>();
-			if(randGen.nextDouble() < 0.5) // 0.5 probability to start from initial state
-				trace.addAll(randomWordGen.generateTrace(hypothesis, mutants));
+			if(rand.nextDouble() < 0.5) // 0.5 probability to start from initial state
+				trace.addAll(randomWordGen.get());
 			while(trace.size() < maxTestLength){
 				MutantProducer chosenMutant = 
-						mutants.get(randGen.nextInt(mutants.size()));
-				Optional<List<Symbol>> traceExtension = equivChecker.killMutant(chosenMutant, hypothesis, trace);
+						mutants.get(rand.nextInt(mutants.size()));
+				Optional<List<Symbol>> traceExtension = checker.killMutant(chosenMutant, hypothesis, trace);
 				if(traceExtension.isPresent()){
 					trace = traceExtension.get();
-					trace.addAll(randomWordGen.generateTrace(hypothesis, mutants));
-					if(randGen.nextDouble() <= stopProb){
+					trace.addAll(randomWordGen.get());
+					if(rand.nextDouble() <= stopProb){
 						break;
 					}
 				}
 				else {
-					if(randGen.nextDouble() > retryProb){
+					if(rand.nextDouble() > retryProb){
 						break;
 					}
 				}
 			}
 			return trace;
 		} else 
-			return randomWordGenMaxLen.generateTrace(hypothesis, mutants);
+			return randomWordGenMaxLen.get();
+	}
+
+	@Override
+	public boolean supportsParallelGeneration() {
+		return true;
 	}
 
+	@Override
+	public MuDirectedIterativeGenerator copy() {
+		return new MuDirectedIterativeGenerator(stopProb, retryProb, randomWordGen.getInputAlphabet(), maxTestLength,
+				randomWordGen.getMaxTestLength());
+	}
 }
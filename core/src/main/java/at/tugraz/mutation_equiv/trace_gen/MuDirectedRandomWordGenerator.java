@@ -20,6 +20,9 @@ package at.tugraz.mutation_equiv.trace_gen;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.function.Supplier;
+
+import at.tugraz.mutation_equiv.HypothesisContext;
 import at.tugraz.mutation_equiv.equiv_check.EquivalenceChecker;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
 import net.automatalib.automata.transout.MealyMachine;
@@ -48,6 +51,8 @@ public class MuDirectedRandomWordGenerator implements TraceGenerator{
 	private RandomWordGenerator randPrefGen = null;
 	private RandomWordGenerator randSufGen = null;
 	private EquivalenceChecker equivChecker = null;
+	private ThreadLocal<EquivalenceChecker> parallelCheckers = null;
+	private volatile HypothesisContext hypothesisContext = null;
 	private int maxTries = 5;
 	
 	public MuDirectedRandomWordGenerator(int maxRandPreLen, int maxRandSufLen, Random randGen, 
@@ -57,28 +62,47 @@ public class MuDirectedRandomWordGenerator implements TraceGenerator{
 		randPrefGen = new RandomWordGenerator(inputAlphabet, randGen, maxRandPreLen);
 		randSufGen = new RandomWordGenerator(inputAlphabet, randGen, maxRandSufLen);
 		this.equivChecker = new EquivalenceChecker(inputAlphabet,true);
+		// checkers are not thread-safe, so every thread generating tests in parallel uses its own 
+		this.parallelCheckers = ThreadLocal.withInitial(() -> new EquivalenceChecker(inputAlphabet,true));
 	}
 
 	@Override
 	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
 			List<MutantProducer> mutants) {
-		List<Symbol> prefix = randPrefGen.generateTrace(hypothesis,mutants);
-		List<Symbol> suffix = randSufGen.generateTrace(hypothesis,mutants);
+		return generateTrace(hypothesis, mutants, randGen, 
+				() -> randPrefGen.generateTrace(hypothesis, mutants),
+				() -> randSufGen.generateTrace(hypothesis, mutants), equivChecker);
+	}
+
+	@Override
+	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants, Random rand) {
+		return generateTrace(hypothesis, mutants, rand, 
+				() -> randPrefGen.generateTrace(hypothesis, mutants, rand),
+				() -> randSufGen.generateTrace(hypothesis, mutants, rand), parallelChecker(hypothesis));
+	}
+
+	private List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants, Random rand, Supplier<List<Symbol>> prefixGen,
+			Supplier<List<Symbol>> suffixGen, EquivalenceChecker checker) {
+		List<Symbol> prefix = prefixGen.get();
+		List<Symbol> suffix = suffixGen.get();
 
 		if(!mutants.isEmpty()){
 			for(int tries = 0; tries < maxTries; tries ++) {
-				MutantProducer chosenMutant = mutants.get(randGen.nextInt(mutants.size()));
+				MutantProducer chosenMutant = mutants.get(rand.nextInt(mutants.size()));
 
-				Optional<List<Symbol>> traceToKill = equivChecker.killMutant(
+				Optional<List<Symbol>> traceToKill = checker.killMutant(
 						chosenMutant, hypothesis,prefix);
 		
 				if(traceToKill.isPresent()){
-					prefix.addAll(traceToKill.get());
+					// the trace to kill already starts with the prefix
+					prefix = traceToKill.get();
 					break;
 				} else {
 					if(prefix.isEmpty()){
 						System.out.println("well that's odd");
-						prefix = randPrefGen.generateTrace(hypothesis, mutants); // this should not happen, every mutant should be killable with empty prefix
+						prefix = prefixGen.get(); // this should not happen, every mutant should be killable with empty prefix
 					}else{
 						prefix.subList(prefix.size()/2,prefix.size()).clear();
 					}
@@ -89,6 +113,25 @@ public class MuDirectedRandomWordGenerator implements TraceGenerator{
 		return prefix;
 	}
 
+	@Override
+	public boolean supportsParallelGeneration() {
+		return true;
+	}
+
+	@Override
+	public void setHypothesisContext(HypothesisContext context) {
+		equivChecker.setHypothesisContext(context);
+		hypothesisContext = context;
+	}
+
+	private EquivalenceChecker parallelChecker(MealyMachine<Object, Symbol, ?, String> hypothesis) {
+		EquivalenceChecker checker = parallelCheckers.get();
+		// the checkers of the generating threads are only updated with the context once they are used
+		HypothesisContext context = hypothesisContext;
+		if(context != null && (Object) context.getHypothesis() == hypothesis)
+			checker.setHypothesisContext(context);
+		return checker;
+	}
 
 	@Override
 	public void updateRandomSeed(long seed) {
@@ -104,4 +147,12 @@ public class MuDirectedRandomWordGenerator implements TraceGenerator{
 				randPrefGen.getMaxTestLength(),
 				randSufGen.getMaxTestLength());
 	}
+
+	@Override
+	public MuDirectedRandomWordGenerator copy() {
+		MuDirectedRandomWordGenerator copy = new MuDirectedRandomWordGenerator(randPrefGen.getMaxTestLength(),
+				randSufGen.getMaxTestLength(), new Random(1), randPrefGen.getInputAlphabet());
+		copy.maxTries = maxTries;
+		return copy;
+	}
 }
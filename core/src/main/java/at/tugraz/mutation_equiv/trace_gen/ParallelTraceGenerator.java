@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.trace_gen;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import at.tugraz.mutation_equiv.HypothesisContext;
+import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.words.impl.Symbol;
+
+/**
+ * This generator generates the tests of another generator in parallel on a 
+ * fork-join pool. 
+ * 
+ * Before generation, the seed of every test is derived sequentially by splitting 
+ * a <code>SplittableRandom</code>, thus the i-th test depends only on the seed of 
+ * this generator and on i. The generated tests are the same regardless of the number 
+ * of threads, but they differ from the tests generated sequentially by the wrapped
+ * generator.
+ * 
+ * Like sequential generation, parallel generation is cancelled by interrupting 
+ * the thread calling {@link #generateTraces(int, MealyMachine, List)}.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class ParallelTraceGenerator implements TraceGenerator {
+
+	// number of tests below which tests are generated sequentially
+	private static final int PARTITION_SIZE = 16;
+
+	private class GenerationTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private MealyMachine<Object, Symbol, ?, String> hypothesis;
+		private List<MutantProducer> mutants;
+		private long[] seeds;
+		private List<Symbol>[] traces;
+		private int from;
+		private int to;
+		private AtomicBoolean cancelled;
+
+		public GenerationTask(MealyMachine<Object, Symbol, ?, String> hypothesis, List<MutantProducer> mutants,
+				long[] seeds, List<Symbol>[] traces, int from, int to, AtomicBoolean cancelled) {
+			this.hypothesis = hypothesis;
+			this.mutants = mutants;
+			this.seeds = seeds;
+			this.traces = traces;
+			this.from = from;
+			this.to = to;
+			this.cancelled = cancelled;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= PARTITION_SIZE) {
+				for (int i = from; i < to && !cancelled.get(); i++)
+					traces[i] = generator.generateTrace(hypothesis, mutants, new Random(seeds[i]));
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new GenerationTask(hypothesis, mutants, seeds, traces, from, middle, cancelled),
+					new GenerationTask(hypothesis, mutants, seeds, traces, middle, to, cancelled));
+		}
+	}
+
+	private TraceGenerator generator;
+	private ForkJoinPool pool;
+	private SplittableRandom seedGen = new SplittableRandom(1);
+
+	public ParallelTraceGenerator(TraceGenerator generator) {
+		this(generator, ForkJoinPool.commonPool());
+	}
+
+	public ParallelTraceGenerator(TraceGenerator generator, ForkJoinPool pool) {
+		if (!generator.supportsParallelGeneration())
+			throw new IllegalArgumentException(generator.description() + " does not support parallel generation");
+		this.generator = generator;
+		this.pool = pool;
+	}
+
+	@Override
+	public void updateRandomSeed(long seed) {
+		generator.updateRandomSeed(seed);
+		seedGen = new SplittableRandom(seed);
+	}
+
+	@Override
+	public void setHypothesisContext(HypothesisContext context) {
+		generator.setHypothesisContext(context);
+	}
+
+	@Override
+	public String description() {
+		return "parallel(" + generator.description() + ")";
+	}
+
+	@Override
+	public void prepare(MealyMachine<Object, Symbol, ?, String> hypothesis, List<MutantProducer> mutants) {
+		generator.prepare(hypothesis, mutants);
+	}
+
+	@Override
+	public boolean supportsParallelGeneration() {
+		return true;
+	}
+
+	@Override
+	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants) {
+		return generator.generateTrace(hypothesis, mutants, new Random(seedGen.split().nextLong()));
+	}
+
+	@Override
+	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants, Random rand) {
+		return generator.generateTrace(hypothesis, mutants, rand);
+	}
+
+	@Override
+	public List<List<Symbol>> generateTraces(int nrTraces, MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants) {
+		generator.prepare(hypothesis, mutants);
+		long[] seeds = new long[nrTraces];
+		for (int i = 0; i < nrTraces; i++)
+			seeds[i] = seedGen.split().nextLong();
+		@SuppressWarnings("unchecked")
+		List<Symbol>[] traces = new List[nrTraces];
+		AtomicBoolean cancelled = new AtomicBoolean();
+		GenerationTask task = new GenerationTask(hypothesis, mutants, seeds, traces, 0, nrTraces, cancelled);
+		pool.execute(task);
+		try {
+			task.get();
+		} catch (InterruptedException e) {
+			// stop the remaining tasks and wait for running ones, such that no
+			// generation overlaps with the preparation for the next hypothesis
+			cancelled.set(true);
+			task.quietlyJoin();
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Generation of traces cancelled");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new RuntimeException("Generation of traces failed", e.getCause());
+		}
+		return Arrays.asList(traces);
+	}
+
+	/**
+	 * The copy shares the pool with this generator.
+	 */
+	@Override
+	public ParallelTraceGenerator copy() {
+		return new ParallelTraceGenerator(generator.copy(), pool);
+	}
+}
@@ -45,27 +45,42 @@ public class RandomWordGenerator implements TraceGenerator{
 	public void setMaxTestLength(int maxTestLength) {
 		this.maxTestLength = maxTestLength;
 	}
+	public Alphabet<Symbol> getInputAlphabet() {
+		return inputAlphabet;
+	}
 	public RandomWordGenerator(Alphabet<Symbol> inputAlphabet, Random randGen, int maxTestLength){
 		this.inputAlphabet = inputAlphabet;
 		this.randGen  = randGen;
 		this.maxTestLength = maxTestLength;
 	}
 	public Symbol createRandomInput() {
-		return inputAlphabet.getSymbol(randGen.nextInt(inputAlphabet.size()));
+		return createRandomInput(randGen);
+	}
+	private Symbol createRandomInput(Random rand) {
+		return inputAlphabet.getSymbol(rand.nextInt(inputAlphabet.size()));
 	}
 	@Override
 	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
 			List<MutantProducer> mutants) {
+		return generateTrace(hypothesis, mutants, randGen);
+	}
+	@Override
+	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants, Random rand) {
 		if(maxTestLength == -1)
 			return new ArrayList<>();
-		int length = randGen.nextInt(maxTestLength  + 1);
+		int length = rand.nextInt(maxTestLength  + 1);
 		List<Symbol> test = new ArrayList<>();
 		for(int i = 0; i < length; i++){
-			test.add( createRandomInput());
+			test.add( createRandomInput(rand));
 		}
 		return test;
 	}
 	@Override
+	public boolean supportsParallelGeneration() {
+		return true;
+	}
+	@Override
 	public void updateRandomSeed(long seed) {
 		randGen = new Random(seed);
 	}
@@ -73,4 +88,9 @@ public class RandomWordGenerator implements TraceGenerator{
 	public String description() {
 		return String.format("rand-word(len=%d)",maxTestLength);
 	}
+
+	@Override
+	public RandomWordGenerator copy() {
+		return new RandomWordGenerator(inputAlphabet, new Random(1), maxTestLength);
+	}
 }
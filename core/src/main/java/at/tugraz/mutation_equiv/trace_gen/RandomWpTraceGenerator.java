@@ -18,12 +18,14 @@
 package at.tugraz.mutation_equiv.trace_gen;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
+import at.tugraz.mutation_equiv.HypothesisContext;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
 import net.automatalib.automata.transout.MealyMachine;
-import net.automatalib.commons.util.mappings.MutableMapping;
 import net.automatalib.util.automata.Automata;
 import net.automatalib.words.Alphabet;
 import net.automatalib.words.Word;
@@ -51,10 +53,11 @@ public class RandomWpTraceGenerator implements TraceGenerator {
     private final int rndLength;
     private final Alphabet<Symbol> inputAlphabet;
     private Random rand = null;
-	private ArrayList<Word<Symbol>> stateCover;
+	private List<Word<Symbol>> stateCover;
 	private ArrayList<Symbol>  arrayAlphabet;
-	private ArrayList<Word<Symbol>> globalSuffixes;
-	private MutableMapping<Object, ArrayList<Word<Symbol>>>  localSuffixSets;
+	private List<Word<Symbol>> globalSuffixes;
+	private Map<Object, List<Word<Symbol>>>  localSuffixSets;
+	private HypothesisContext context = null;
     
 	public RandomWpTraceGenerator(int minimalSize, int rndLength, Alphabet<Symbol> inputAlphabet, 
 			Random rand) {
@@ -66,24 +69,39 @@ public class RandomWpTraceGenerator implements TraceGenerator {
 	@Override
 	public List<List<Symbol>> generateTraces(int nrTraces, MealyMachine<Object, Symbol, ?, String> hypothesis,
 			List<MutantProducer> mutants) {
+		prepare(hypothesis, mutants);
+		return TraceGenerator.super.generateTraces(nrTraces, hypothesis, mutants);
+	}
+	@Override
+	public void prepare(MealyMachine<Object, Symbol, ?, String> hypothesis, List<MutantProducer> mutants) {
+        arrayAlphabet = new ArrayList<>(inputAlphabet);
+		if (context != null && context.isFor(hypothesis)) {
+			stateCover = context.getStateCover();
+			globalSuffixes = context.getCharacterizingSet();
+			localSuffixSets = context.getStateCharacterizingSets();
+			return;
+		}
         stateCover = new ArrayList<>(hypothesis.size());
         Automata.cover(hypothesis, inputAlphabet, stateCover, null);
 
-        // Then repeatedly from this for a random word
-        arrayAlphabet = new ArrayList<>(inputAlphabet);
-
         // Finally we test the state with a suffix, sometimes a global one, sometimes local
         globalSuffixes = new ArrayList<>();
         Automata.characterizingSet(hypothesis, inputAlphabet, globalSuffixes);
 
-        localSuffixSets = hypothesis.createStaticStateMapping();
+        localSuffixSets = new HashMap<>();
         for (Object state : hypothesis.getStates()) {
             ArrayList<Word<Symbol>> suffixSet = new ArrayList<>();
             Automata.stateCharacterizingSet(hypothesis, inputAlphabet, state, suffixSet);
             localSuffixSets.put(state, suffixSet);
         }
-
-		return TraceGenerator.super.generateTraces(nrTraces, hypothesis, mutants);
+	}
+	@Override
+	public boolean supportsParallelGeneration() {
+		return true;
+	}
+	@Override
+	public void setHypothesisContext(HypothesisContext context) {
+		this.context = context;
 	}
 	@Override
 	public void updateRandomSeed(long seed) {
@@ -98,6 +116,12 @@ public class RandomWpTraceGenerator implements TraceGenerator {
 	@Override
 	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
 			List<MutantProducer> mutants) {
+		return generateTrace(hypothesis, mutants, rand);
+	}
+
+	@Override
+	public List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants, Random rand) {
 
         WordBuilder<Symbol> wb = new WordBuilder<>(minimalSize + rndLength + 1);
 
@@ -121,7 +145,7 @@ public class RandomWpTraceGenerator implements TraceGenerator {
         } else {
             // local
             Object state2 = hypothesis.getState(wb);
-            ArrayList<Word<Symbol>> localSuffixes = localSuffixSets.get(state2);
+            List<Word<Symbol>> localSuffixes = localSuffixSets.get(state2);
             if (!localSuffixes.isEmpty()) {
                 wb.append(localSuffixes.get(rand.nextInt(localSuffixes.size())));
             }
@@ -130,4 +154,9 @@ public class RandomWpTraceGenerator implements TraceGenerator {
         wb.forEach(trace::add);
         return trace;
 	}
+
+	@Override
+	public RandomWpTraceGenerator copy() {
+		return new RandomWpTraceGenerator(minimalSize, rndLength, inputAlphabet, new Random(1));
+	}
 }
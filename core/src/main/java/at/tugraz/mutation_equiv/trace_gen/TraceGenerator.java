@@ -19,6 +19,10 @@ package at.tugraz.mutation_equiv.trace_gen;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import at.tugraz.mutation_equiv.HypothesisContext;
 import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
 import net.automatalib.automata.transout.MealyMachine;
 import net.automatalib.words.impl.Symbol;
@@ -37,15 +41,79 @@ public interface TraceGenerator {
 	
 	void updateRandomSeed(long seed);
 	
+	/**
+	 * Passes information about the hypothesis of the current round, which may be 
+	 * used instead of computing it. It is ignored by default.
+	 * 
+	 * @param context context of the hypothesis for which tests are generated next
+	 */
+	default void setHypothesisContext(HypothesisContext context){
+	}
+	
 	String description();
 	
+	/**
+	 * Creates a generator with the same configuration, but independent state,
+	 * e.g. for learning with different seeds in parallel. Random number 
+	 * generators are not shared, so copies are seeded via 
+	 * <code>updateRandomSeed</code> before use.
+	 * 
+	 * @return an independent copy of this generator
+	 */
+	TraceGenerator copy();
+	
 	List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
 			List<MutantProducer> mutants);
 	
+	/**
+	 * Performs the computations necessary for generating tests for the given 
+	 * hypothesis and mutants, like the computation of a state cover. It needs to be 
+	 * called before generating single tests via 
+	 * {@link #generateTrace(MealyMachine, List, Random)}. It does nothing by default.
+	 * 
+	 * @param hypothesis hypothesis for which tests shall be generated 
+	 * @param mutants mutants for which tests shall be generated
+	 */
+	default void prepare(MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants){
+	}
+	
+	/**
+	 * Returns true if this generator implements 
+	 * {@link #generateTrace(MealyMachine, List, Random)}.
+	 * 
+	 * @return true if tests may be generated in parallel
+	 */
+	default boolean supportsParallelGeneration(){
+		return false;
+	}
+	
+	/**
+	 * Generates a single test drawing all random choices from <code>rand</code> 
+	 * rather than from the random number generator of this generator. 
+	 * After {@link #prepare(MealyMachine, List)} has been called, it may be called
+	 * concurrently from multiple threads, hence the generated test depends only on 
+	 * the hypothesis, the mutants and <code>rand</code>.
+	 * 
+	 * @param hypothesis hypothesis for which a test shall be generated
+	 * @param mutants mutants for which a test shall be generated
+	 * @param rand source of randomness used only for this test
+	 * @return a test
+	 */
+	default List<Symbol> generateTrace(MealyMachine<Object, Symbol, ?, String> hypothesis,
+			List<MutantProducer> mutants, Random rand){
+		throw new UnsupportedOperationException(description() + " does not support parallel generation");
+	}
+	
 	default List<List<Symbol>> generateTraces(int nrTraces,MealyMachine<Object, Symbol, ?, String> hypothesis,
 			List<MutantProducer> mutants){
 		List<List<Symbol>> traces = new ArrayList<>(nrTraces);
-		for(int i = 0; i < nrTraces; i++) traces.add(generateTrace(hypothesis,mutants));
+		for(int i = 0; i < nrTraces; i++){
+			// generation in the background, e.g. for an outdated hypothesis, is cancelled by interrupts
+			if(Thread.currentThread().isInterrupted())
+				throw new CancellationException("Generation of traces cancelled");
+			traces.add(generateTrace(hypothesis,mutants));
+		}
 		return traces;
 	}
 }
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable set of small non-negative integers, used to store the mutants
+ * killed by a single test, i.e. one row of the kill matrix computed during
+ * mutation analysis.
+ * 
+ * Kill sets are often sparse, as a test usually kills only a small fraction of
+ * the mutants, but for some mutation operators (e.g. change output) they may
+ * get dense. The set therefore either stores a sorted array of elements or a
+ * <code>long[]</code> bitset, depending on which one needs less memory.
+ * 
+ * Sets are created with a <code>Builder</code>, which may be reused for
+ * several sets to avoid allocating temporary data structures per test.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public final class CompactBitSet {
+
+	/**
+	 * Mutable counterpart of <code>CompactBitSet</code>. It is not thread-safe,
+	 * so every thread should use its own builder.
+	 */
+	public static final class Builder {
+		private final int universeSize;
+		private final long[] words;
+		private int[] added = new int[16];
+		private int nrAdded = 0;
+
+		public Builder(int universeSize) {
+			this.universeSize = universeSize;
+			this.words = new long[wordsFor(universeSize)];
+		}
+
+		public void add(int element) {
+			int wordIndex = element >>> 6;
+			long mask = 1L << element;
+			if ((words[wordIndex] & mask) == 0) {
+				words[wordIndex] |= mask;
+				if (nrAdded == added.length)
+					added = Arrays.copyOf(added, added.length * 2);
+				added[nrAdded++] = element;
+			}
+		}
+
+		public boolean contains(int element) {
+			return (words[element >>> 6] & (1L << element)) != 0;
+		}
+
+		public int size() {
+			return nrAdded;
+		}
+
+		public int getUniverseSize() {
+			return universeSize;
+		}
+
+		/**
+		 * Creates an immutable set containing all elements added since the
+		 * last call to <code>clear</code> and clears the builder afterwards.
+		 * 
+		 * @return set of all added elements
+		 */
+		public CompactBitSet buildAndClear() {
+			CompactBitSet result = null;
+			if (isDenseCheaper(nrAdded, universeSize)) {
+				result = new CompactBitSet(Arrays.copyOf(words, words.length), null, nrAdded);
+			} else {
+				int[] elements = Arrays.copyOf(added, nrAdded);
+				Arrays.sort(elements);
+				result = new CompactBitSet(null, elements, nrAdded);
+			}
+			clear();
+			return result;
+		}
+
+		public void clear() {
+			for (int i = 0; i < nrAdded; i++)
+				words[added[i] >>> 6] = 0;
+			nrAdded = 0;
+		}
+
+		/**
+		 * Removes all elements added after the builder contained
+		 * <code>size</code> elements, e.g. for backtracking.
+		 * 
+		 * @param size
+		 *            number of elements to keep
+		 */
+		public void truncate(int size) {
+			for (int i = size; i < nrAdded; i++)
+				words[added[i] >>> 6] &= ~(1L << added[i]);
+			nrAdded = Math.min(nrAdded, size);
+		}
+
+		public void forEach(IntConsumer action) {
+			for (int i = 0; i < nrAdded; i++)
+				action.accept(added[i]);
+		}
+	}
+
+	private static final CompactBitSet EMPTY = new CompactBitSet(null, new int[0], 0);
+
+	// exactly one of both is non-null
+	private final long[] words;
+	private final int[] elements;
+	private final int cardinality;
+
+	private CompactBitSet(long[] words, int[] elements, int cardinality) {
+		this.words = words;
+		this.elements = elements;
+		this.cardinality = cardinality;
+	}
+
+	public static CompactBitSet empty() {
+		return EMPTY;
+	}
+
+	public static int wordsFor(int universeSize) {
+		return (universeSize + 63) >>> 6;
+	}
+
+	private static boolean isDenseCheaper(int cardinality, int universeSize) {
+		// 32 bits per element in the sparse case vs. one bit per possible
+		// element in the dense case
+		return (long) cardinality * 32 >= universeSize;
+	}
+
+	public int cardinality() {
+		return cardinality;
+	}
+
+	public boolean isEmpty() {
+		return cardinality == 0;
+	}
+
+	public boolean contains(int element) {
+		if (words != null) {
+			int wordIndex = element >>> 6;
+			return wordIndex < words.length && (words[wordIndex] & (1L << element)) != 0;
+		}
+		return Arrays.binarySearch(elements, element) >= 0;
+	}
+
+	/**
+	 * Counts the elements of this set which are also contained in the given
+	 * bitset, i.e. computes the popcount of the intersection.
+	 * 
+	 * @param bitset
+	 *            a bitset in <code>long[]</code> representation
+	 * @return size of the intersection
+	 */
+	public int countCommon(long[] bitset) {
+		int count = 0;
+		if (words != null) {
+			int length = Math.min(words.length, bitset.length);
+			for (int i = 0; i < length; i++)
+				count += Long.bitCount(words[i] & bitset[i]);
+		} else {
+			for (int e : elements)
+				count += (int) ((bitset[e >>> 6] >>> e) & 1L);
+		}
+		return count;
+	}
+
+	/**
+	 * Removes all elements of this set from the given bitset.
+	 * 
+	 * @param bitset
+	 *            a bitset in <code>long[]</code> representation, which will be
+	 *            modified
+	 */
+	public void removeFrom(long[] bitset) {
+		if (words != null) {
+			int length = Math.min(words.length, bitset.length);
+			for (int i = 0; i < length; i++)
+				bitset[i] &= ~words[i];
+		} else {
+			for (int e : elements)
+				bitset[e >>> 6] &= ~(1L << e);
+		}
+	}
+
+	/**
+	 * Adds all elements of this set to the given builder.
+	 * 
+	 * @param builder
+	 *            builder to which elements are added
+	 */
+	public void addTo(Builder builder) {
+		forEach(builder::add);
+	}
+
+	public void forEach(IntConsumer action) {
+		if (words != null) {
+			for (int i = 0; i < words.length; i++) {
+				long word = words[i];
+				while (word != 0) {
+					action.accept((i << 6) + Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+		} else {
+			for (int e : elements)
+				action.accept(e);
+		}
+	}
+}
@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.impl.Symbol;
+
+/**
+ * An immutable, compiled representation of a Mealy machine for the hot loops
+ * of mutation analysis. States are numbered from 0 to <code>size() - 1</code>
+ * and inputs are represented by their index in the input alphabet. Successors
+ * and outputs are stored in flat arrays indexed by
+ * <code>state * |I| + input</code>, which is also used as id of the
+ * transition. Outputs are interned to integer ids.
+ * 
+ * Compiled machines should be created via <code>of</code>, which caches the
+ * compiled machine for the given machine object. Thus, the hypothesis is
+ * compiled once per round of learning and the same compiled machine is shared
+ * by all selectors and equivalence checkers. Like the optimisations based on
+ * <code>CriticalTransition</code>, this requires that the machine is not
+ * changed after it has been compiled.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public final class CompiledMealy {
+
+	private static final Map<MealyMachine<?, ?, ?, ?>, CompiledMealy> cache = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	private final Alphabet<Symbol> inputAlphabet;
+	private final int nrInputs;
+	private final int initialState;
+	private final int[] successors;
+	private final int[] outputs;
+	private final List<String> outputSymbols = new ArrayList<>();
+	private final Map<String, Integer> outputIds = new HashMap<>();
+	private final Object[] states;
+	private final Object[] transitions;
+	private final Map<Object, Integer> stateIndexes = new HashMap<>();
+	private final Map<Object, Integer> transitionIds = new HashMap<>();
+	// breadth-first search trees, computed on demand and indexed by source state
+	private final AtomicReferenceArray<int[]> shortestPathTrees;
+
+	/**
+	 * Returns the compiled version of a Mealy machine, compiling it if it has
+	 * not been compiled before.
+	 * 
+	 * @param machine
+	 *            machine to compile
+	 * @param inputAlphabet
+	 *            input alphabet of the machine
+	 * @return compiled machine
+	 */
+	public static CompiledMealy of(MealyMachine<?, Symbol, ?, String> machine, Alphabet<Symbol> inputAlphabet) {
+		CompiledMealy compiled = cache.get(machine);
+		if (compiled != null && compiled.inputAlphabet.equals(inputAlphabet))
+			return compiled;
+		compiled = compile(machine, inputAlphabet);
+		cache.put(machine, compiled);
+		return compiled;
+	}
+
+	private static <S, T> CompiledMealy compile(MealyMachine<S, Symbol, T, String> machine,
+			Alphabet<Symbol> inputAlphabet) {
+		return new CompiledMealy(machine, inputAlphabet);
+	}
+
+	private <S, T> CompiledMealy(MealyMachine<S, Symbol, T, String> machine, Alphabet<Symbol> inputAlphabet) {
+		this.inputAlphabet = inputAlphabet;
+		this.nrInputs = inputAlphabet.size();
+		this.states = machine.getStates().toArray();
+		for (int i = 0; i < states.length; i++)
+			stateIndexes.put(states[i], i);
+		this.initialState = stateIndexes.get(machine.getInitialState());
+		this.successors = new int[states.length * nrInputs];
+		this.outputs = new int[states.length * nrInputs];
+		this.transitions = new Object[states.length * nrInputs];
+		this.shortestPathTrees = new AtomicReferenceArray<>(states.length);
+		for (int s = 0; s < states.length; s++) {
+			@SuppressWarnings("unchecked")
+			S state = (S) states[s];
+			for (int i = 0; i < nrInputs; i++) {
+				int transId = s * nrInputs + i;
+				T trans = machine.getTransition(state, inputAlphabet.getSymbol(i));
+				transitions[transId] = trans;
+				transitionIds.put(trans, transId);
+				successors[transId] = stateIndexes.get(machine.getSuccessor(trans));
+				outputs[transId] = internOutput(machine.getTransitionOutput(trans));
+			}
+		}
+	}
+
+	private int internOutput(String output) {
+		Integer id = outputIds.get(output);
+		if (id == null) {
+			id = outputSymbols.size();
+			outputSymbols.add(output);
+			outputIds.put(output, id);
+		}
+		return id;
+	}
+
+	public int size() {
+		return states.length;
+	}
+
+	public int getNrInputs() {
+		return nrInputs;
+	}
+
+	public int getNrTransitions() {
+		return successors.length;
+	}
+
+	public Alphabet<Symbol> getInputAlphabet() {
+		return inputAlphabet;
+	}
+
+	public int getInitialState() {
+		return initialState;
+	}
+
+	public int getTransitionId(int state, int input) {
+		return state * nrInputs + input;
+	}
+
+	public int getSuccessor(int state, int input) {
+		return successors[state * nrInputs + input];
+	}
+
+	public int getOutput(int state, int input) {
+		return outputs[state * nrInputs + input];
+	}
+
+	public int getTransitionSuccessor(int transId) {
+		return successors[transId];
+	}
+
+	public int getTransitionOutput(int transId) {
+		return outputs[transId];
+	}
+
+	public int getTransitionSource(int transId) {
+		return transId / nrInputs;
+	}
+
+	public int getTransitionInput(int transId) {
+		return transId % nrInputs;
+	}
+
+	/**
+	 * Returns a tree of shortest paths from a source state, which is computed
+	 * by breadth-first search when it is requested for the first time. The tree
+	 * stores for every state the id of the transition through which it is
+	 * reached first, -1 for the source and -2 for unreachable states. Inputs
+	 * are explored in the order of the input alphabet.
+	 * 
+	 * @param source
+	 *            source state
+	 * @return transitions leading to states, indexed by state
+	 */
+	public int[] getShortestPathTree(int source) {
+		int[] tree = shortestPathTrees.get(source);
+		if (tree == null) {
+			tree = computeShortestPathTree(source);
+			shortestPathTrees.set(source, tree);
+		}
+		return tree;
+	}
+
+	private int[] computeShortestPathTree(int source) {
+		int[] tree = new int[states.length];
+		Arrays.fill(tree, -2);
+		tree[source] = -1;
+		int[] schedule = new int[states.length];
+		int head = 0;
+		int tail = 0;
+		schedule[tail++] = source;
+		while (head < tail) {
+			int state = schedule[head++];
+			for (int transId = state * nrInputs; transId < (state + 1) * nrInputs; transId++) {
+				int succ = successors[transId];
+				if (tree[succ] == -2) {
+					tree[succ] = transId;
+					schedule[tail++] = succ;
+				}
+			}
+		}
+		return tree;
+	}
+
+	/**
+	 * @param source
+	 *            source state
+	 * @param target
+	 *            target state
+	 * @return input indexes of a shortest path from source to target or null
+	 *         if the target is not reachable
+	 */
+	public int[] getShortestPath(int source, int target) {
+		int[] tree = getShortestPathTree(source);
+		if (tree[target] == -2)
+			return null;
+		int length = 0;
+		for (int state = target; tree[state] >= 0; state = getTransitionSource(tree[state]))
+			length++;
+		int[] path = new int[length];
+		for (int state = target; tree[state] >= 0; state = getTransitionSource(tree[state]))
+			path[--length] = getTransitionInput(tree[state]);
+		return path;
+	}
+
+	/**
+	 * Executes a sequence of inputs from some state.
+	 * 
+	 * @param state
+	 *            start state
+	 * @param inputs
+	 *            input indexes
+	 * @return state reached
+	 */
+	public int getSuccessor(int state, int[] inputs) {
+		for (int input : inputs)
+			state = successors[state * nrInputs + input];
+		return state;
+	}
+
+	public int getSuccessor(int state, List<Symbol> inputs) {
+		for (Symbol input : inputs)
+			state = successors[state * nrInputs + inputAlphabet.getSymbolIndex(input)];
+		return state;
+	}
+
+	public int getInputIndex(Symbol input) {
+		return inputAlphabet.getSymbolIndex(input);
+	}
+
+	public Symbol getInput(int input) {
+		return inputAlphabet.getSymbol(input);
+	}
+
+	public int[] toInputIndexes(List<Symbol> inputs) {
+		int[] result = new int[inputs.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = inputAlphabet.getSymbolIndex(inputs.get(i));
+		return result;
+	}
+
+	public String getOutputSymbol(int outputId) {
+		return outputSymbols.get(outputId);
+	}
+
+	public int getNrOutputs() {
+		return outputSymbols.size();
+	}
+
+	/**
+	 * @param output
+	 *            an output symbol
+	 * @return id of the output or -1 if the machine never produces it
+	 */
+	public int getOutputId(String output) {
+		Integer id = outputIds.get(output);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * @param state
+	 *            a state of the original machine
+	 * @return index of the state or -1 if it is not a state of the original
+	 *         machine
+	 */
+	public int getStateIndex(Object state) {
+		Integer index = stateIndexes.get(state);
+		return index == null ? -1 : index;
+	}
+
+	public Object getState(int state) {
+		return states[state];
+	}
+
+	/**
+	 * @param transition
+	 *            a transition of the original machine
+	 * @return id of the transition or -1 if it is not a transition of the
+	 *         original machine
+	 */
+	public int getTransitionId(Object transition) {
+		Integer id = transitionIds.get(transition);
+		return id == null ? -1 : id;
+	}
+
+	public Object getTransition(int transId) {
+		return transitions[transId];
+	}
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Relates the states of a hypothesis to the states of the hypothesis of the
+ * previous round of learning. To this end, the reachable part of the product
+ * of both hypotheses is explored starting from the pair of initial states.
+ * 
+ * A state of the new hypothesis is considered to be unchanged if it only
+ * occurs paired with a single state of the old hypothesis which in turn only
+ * occurs paired with that state. Then, every input sequence reaches the new
+ * state if and only if it reaches the corresponding old state. Consequently,
+ * also the transitions leaving an unchanged state are passed by exactly the
+ * same input sequences in both hypotheses, at the same positions. States
+ * which have been split by counterexample processing, and states reached
+ * through split states, are not mapped.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class HypothesisRefinement {
+
+	private static final int NOT_PAIRED = -1;
+	private static final int PAIRED_WITH_MANY = -2;
+
+	private final CompiledMealy oldHypothesis;
+	private final CompiledMealy newHypothesis;
+	private final int[] newToOld;
+	private int nrUnchangedStates = 0;
+
+	public HypothesisRefinement(CompiledMealy oldHypothesis, CompiledMealy newHypothesis) {
+		this.oldHypothesis = oldHypothesis;
+		this.newHypothesis = newHypothesis;
+		int nrNew = newHypothesis.size();
+		int nrOld = oldHypothesis.size();
+		newToOld = new int[nrNew];
+		Arrays.fill(newToOld, NOT_PAIRED);
+		if (!oldHypothesis.getInputAlphabet().equals(newHypothesis.getInputAlphabet()))
+			return;
+
+		int[] oldToNew = new int[nrOld];
+		Arrays.fill(oldToNew, NOT_PAIRED);
+		int nrInputs = newHypothesis.getNrInputs();
+		BitSet visited = new BitSet();
+		// pairs are encoded as newState * nrOld + oldState
+		long[] schedule = new long[Math.max(nrNew, nrOld)];
+		int head = 0;
+		int tail = 0;
+		long initialPair = (long) newHypothesis.getInitialState() * nrOld + oldHypothesis.getInitialState();
+		visited.set((int) initialPair);
+		schedule[tail++] = initialPair;
+		while (head < tail) {
+			long pair = schedule[head++];
+			int newState = (int) (pair / nrOld);
+			int oldState = (int) (pair % nrOld);
+			newToOld[newState] = pairWith(newToOld[newState], oldState);
+			oldToNew[oldState] = pairWith(oldToNew[oldState], newState);
+			for (int input = 0; input < nrInputs; input++) {
+				long succPair = (long) newHypothesis.getSuccessor(newState, input) * nrOld
+						+ oldHypothesis.getSuccessor(oldState, input);
+				if (!visited.get((int) succPair)) {
+					visited.set((int) succPair);
+					if (tail == schedule.length)
+						schedule = Arrays.copyOf(schedule, schedule.length * 2);
+					schedule[tail++] = succPair;
+				}
+			}
+		}
+		for (int newState = 0; newState < nrNew; newState++) {
+			int oldState = newToOld[newState];
+			if (oldState >= 0 && oldToNew[oldState] == newState)
+				nrUnchangedStates++;
+			else
+				newToOld[newState] = NOT_PAIRED;
+		}
+	}
+
+	private static int pairWith(int currentPartner, int state) {
+		if (currentPartner == NOT_PAIRED || currentPartner == state)
+			return state;
+		return PAIRED_WITH_MANY;
+	}
+
+	/**
+	 * @param newState
+	 *            state of the new hypothesis
+	 * @return the corresponding state of the old hypothesis or -1 if the state
+	 *         has changed
+	 */
+	public int getOldState(int newState) {
+		return newToOld[newState];
+	}
+
+	/**
+	 * @param newTransId
+	 *            id of a transition of the new hypothesis
+	 * @return the id of the corresponding transition of the old hypothesis or
+	 *         -1 if the source state of the transition has changed
+	 */
+	public int getOldTransitionId(int newTransId) {
+		int oldState = newToOld[newHypothesis.getTransitionSource(newTransId)];
+		if (oldState < 0)
+			return -1;
+		return oldHypothesis.getTransitionId(oldState, newHypothesis.getTransitionInput(newTransId));
+	}
+
+	public int getNrUnchangedStates() {
+		return nrUnchangedStates;
+	}
+}
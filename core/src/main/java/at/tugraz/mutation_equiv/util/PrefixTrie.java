@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.util;
+
+import java.util.Arrays;
+
+/**
+ * A prefix trie over words of input indexes, stored in flat int arrays. Node 0
+ * is the root, every other node represents the prefix labelling the path from
+ * the root to it. Children of a node are stored as linked list of siblings.
+ * Words inserted into the trie are identified by an index and every node keeps
+ * the indexes of the words ending in it.
+ * 
+ * The trie is used to simulate tests with common prefixes only once. Since
+ * nodes also store the range of indexes of the words passing through them, a
+ * trie that grows by inserting words with increasing indexes can also be
+ * traversed restricted to the words inserted before or after some point.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class PrefixTrie {
+
+	private int nrNodes = 1;
+	private int[] firstChild = new int[64];
+	private int[] nextSibling = new int[64];
+	private int[] nodeInput = new int[64];
+	private int[] firstWord = new int[64];
+	// smallest and largest index of the words passing through a node
+	private int[] minWord = new int[64];
+	private int[] maxWord = new int[64];
+	// next word ending in the same node, indexed by word index
+	private int[] nextWord = new int[64];
+
+	public PrefixTrie() {
+		firstChild[0] = -1;
+		nextSibling[0] = -1;
+		nodeInput[0] = -1;
+		firstWord[0] = -1;
+		minWord[0] = Integer.MAX_VALUE;
+		maxWord[0] = -1;
+	}
+
+	public static int root() {
+		return 0;
+	}
+
+	/**
+	 * Inserts a word into the trie.
+	 * 
+	 * @param word
+	 *            input indexes
+	 * @param wordIndex
+	 *            non-negative index identifying the word, must be unique
+	 * @return node representing the word
+	 */
+	public int insert(int[] word, int wordIndex) {
+		int node = 0;
+		addWordIndex(node, wordIndex);
+		for (int input : word) {
+			node = getOrAddChild(node, input);
+			addWordIndex(node, wordIndex);
+		}
+		if (wordIndex >= nextWord.length)
+			nextWord = Arrays.copyOf(nextWord, Math.max(wordIndex + 1, nextWord.length * 2));
+		nextWord[wordIndex] = firstWord[node];
+		firstWord[node] = wordIndex;
+		return node;
+	}
+
+	private void addWordIndex(int node, int wordIndex) {
+		minWord[node] = Math.min(minWord[node], wordIndex);
+		maxWord[node] = Math.max(maxWord[node], wordIndex);
+	}
+
+	/**
+	 * @param node
+	 *            a node
+	 * @param input
+	 *            input index
+	 * @return child of node for the input or -1 if there is none
+	 */
+	public int getChild(int node, int input) {
+		for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+			if (nodeInput[child] == input)
+				return child;
+		}
+		return -1;
+	}
+
+	public int getOrAddChild(int node, int input) {
+		int child = getChild(node, input);
+		if (child >= 0)
+			return child;
+		if (nrNodes == firstChild.length) {
+			int newLength = nrNodes * 2;
+			firstChild = Arrays.copyOf(firstChild, newLength);
+			nextSibling = Arrays.copyOf(nextSibling, newLength);
+			nodeInput = Arrays.copyOf(nodeInput, newLength);
+			firstWord = Arrays.copyOf(firstWord, newLength);
+			minWord = Arrays.copyOf(minWord, newLength);
+			maxWord = Arrays.copyOf(maxWord, newLength);
+		}
+		child = nrNodes++;
+		firstChild[child] = -1;
+		nextSibling[child] = firstChild[node];
+		nodeInput[child] = input;
+		firstWord[child] = -1;
+		minWord[child] = Integer.MAX_VALUE;
+		maxWord[child] = -1;
+		firstChild[node] = child;
+		return child;
+	}
+
+	public int size() {
+		return nrNodes;
+	}
+
+	/**
+	 * @param node
+	 *            a node
+	 * @return first child of the node or -1 if it is a leaf
+	 */
+	public int getFirstChild(int node) {
+		return firstChild[node];
+	}
+
+	/**
+	 * @param node
+	 *            a node
+	 * @return next sibling of the node or -1 if there is none
+	 */
+	public int getNextSibling(int node) {
+		return nextSibling[node];
+	}
+
+	/**
+	 * @param node
+	 *            a node other than the root
+	 * @return the input labelling the edge to the node
+	 */
+	public int getInput(int node) {
+		return nodeInput[node];
+	}
+
+	/**
+	 * @param node
+	 *            a node
+	 * @return index of a word ending in the node or -1 if there is none
+	 */
+	public int getFirstWord(int node) {
+		return firstWord[node];
+	}
+
+	/**
+	 * @param wordIndex
+	 *            index of a word
+	 * @return index of another word ending in the same node or -1 if there is
+	 *         none
+	 */
+	public int getNextWord(int wordIndex) {
+		return nextWord[wordIndex];
+	}
+
+	/**
+	 * @param node
+	 *            a node
+	 * @return smallest index of the words passing through or ending in the
+	 *         node
+	 */
+	public int getMinWord(int node) {
+		return minWord[node];
+	}
+
+	/**
+	 * @param node
+	 *            a node
+	 * @return largest index of the words passing through or ending in the
+	 *         node
+	 */
+	public int getMaxWord(int node) {
+		return maxWord[node];
+	}
+}
@@ -216,10 +216,10 @@ public class ReferenceLearningWithWMethod {
 			long testStepLimit) throws FileNotFoundException, IOException {
 		// oracle for counting queries wraps sul
 		ResetCounterSUL<Symbol, String> statisticSUL = new ResetCounterSUL<>("membership queries", sul);
-		StepCounterSUL mqStepCounter = new StepCounterSUL(statisticSUL);
+		Alphabet<Symbol> alphabet = sul.getAlphabet();
+		StepCounterSUL mqStepCounter = new StepCounterSUL(statisticSUL, alphabet);
 
 		SUL<Symbol, String> effectiveSul = mqStepCounter;
-		Alphabet<Symbol> alphabet = sul.getAlphabet();
 		// caching not needed actually
 		effectiveSul = SULCaches.createCache(alphabet, effectiveSul);
 
@@ -228,7 +228,7 @@ public class ReferenceLearningWithWMethod {
 		ExtensibleLStarMealy<Symbol, String> learner = new ExtensibleLStarMealy<>(alphabet, mqOracle,
 				Collections.emptyList(), ObservationTableCEXHandlers.RIVEST_SCHAPIRE, ClosingStrategies.CLOSE_SHORTEST);
 
-		StepCounterSUL stepCounterEQ = new StepCounterSUL(sul);
+		StepCounterSUL stepCounterEQ = new StepCounterSUL(sul, alphabet);
 		SULOracle<Symbol, String> mqOracleForEq = new SULOracle<>(stepCounterEQ);
 
 		MealyWpMethodEQOracle<Symbol, String> eqOracle = new MealyWpMethodEQOracle<Symbol, String>(depth,
@@ -20,6 +20,7 @@ package at.tugraz.mutation_equiv.configuration;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import at.tugraz.mutation_equiv.TestCase;
@@ -47,6 +48,20 @@ public class RandomCovSelEquivConfiguration<T extends TestCase> {
 	public String nameSuffix = "";
 	public boolean keepExecutedTests = false;
 	public List<Integer> initialSuiteSizes = new LinkedList<>();
+	// chunk size for pipelined generation and selection, 0 disables pipelining
+	public int pipelineChunkSize = 0;
+	// prepare the next round while remaining tests are executed, requires reuseRemaining
+	public boolean speculativePreparation = false;
+	// number of forked SUL instances executing tests concurrently, values below 2 disable the pool
+	public int nrSulInstances = 1;
+	// batch size for executing tests with shared prefixes on SULs supporting snapshots, 0 disables it
+	public int snapshotBatchSize = 0;
+	// number of tests per batch query, 0 executes tests one by one
+	public int queryBatchSize = 0;
+	// maximum number of nodes of the membership query cache, 0 disables caching
+	public int mqCacheSize = 0;
+	// number of threads generating tests in parallel, values below 2 generate tests sequentially
+	public int nrGenerationThreads = 1;
 	
 	public RandomCovSelEquivConfiguration(){
 		
@@ -66,6 +81,37 @@ public class RandomCovSelEquivConfiguration<T extends TestCase> {
 		this.mutantSampler = mutantSampler;
 	}
 	
+	/**
+	 * Creates a deep copy of this configuration, which can be used concurrently
+	 * with this configuration, e.g. for learning with different seeds in parallel.
+	 * 
+	 * @return a copy with copied selector, generator, samplers and operators
+	 */
+	public RandomCovSelEquivConfiguration<T> copy(){
+		RandomCovSelEquivConfiguration<T> copy = new RandomCovSelEquivConfiguration<>(
+				mutationOperators.stream().map(MutationOperator::copy).collect(Collectors.toList()), 
+				sizeTestSelectionSuite, reuseRemaining, selector.copy(), traceGen.copy(), mutantSampler.copy());
+		if(mutantGenerationSampler == mutantSampler)
+			copy.mutantGenerationSampler = copy.mutantSampler;
+		else if(mutantGenerationSampler != null)
+			copy.mutantGenerationSampler = mutantGenerationSampler.copy();
+		copy.nameSuffix = nameSuffix;
+		copy.keepExecutedTests = keepExecutedTests;
+		copy.initialSuiteSizes = new LinkedList<>(initialSuiteSizes);
+		copy.pipelineChunkSize = pipelineChunkSize;
+		copy.speculativePreparation = speculativePreparation;
+		copy.nrSulInstances = nrSulInstances;
+		copy.snapshotBatchSize = snapshotBatchSize;
+		copy.queryBatchSize = queryBatchSize;
+		copy.mqCacheSize = mqCacheSize;
+		copy.nrGenerationThreads = nrGenerationThreads;
+		// copies have their own mutant ids, such that ids do not depend on
+		// copies used concurrently
+		AtomicInteger idGen = new AtomicInteger();
+		copy.mutationOperators.forEach(op -> op.setIdGenerator(idGen));
+		return copy;
+	}
+	
 	public void updateRandomSeed(long seed){
 		traceGen.updateRandomSeed(seed);
 		mutantSampler.updateSeed(seed);
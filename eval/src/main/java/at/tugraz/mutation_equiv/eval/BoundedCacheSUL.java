@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.eval;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import at.tugraz.learning.suls.BatchQuerySUL;
+import at.tugraz.learning.suls.SnapshotableSUL;
+import de.learnlib.api.SUL;
+import de.learnlib.api.SULException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Symbol;
+
+/**
+ * A cache for membership queries with bounded memory. Queries are stored in a
+ * prefix tree and answered from it as long as possible. Only when a query
+ * leaves the tree, the wrapped SUL is reset, the cached prefix is replayed
+ * and the query is continued on the SUL. 
+ * 
+ * The number of nodes in the tree is bounded. Whenever a query has been
+ * completed and the tree has grown too large, the least recently used nodes
+ * are removed together with their subtrees. Since a node is always used
+ * together with its ancestors, this removes the least recently used queries.
+ * 
+ * Equivalence tests are usually long and rarely repeated, so they would only
+ * displace membership queries from the cache. Therefore, the cache can be
+ * bypassed, in which case all calls are forwarded to the wrapped SUL and 
+ * nothing is cached. Counting steps below the cache, e.g. with a 
+ * {@link StepCounterSUL}, thus counts the steps actually executed for 
+ * membership queries and equivalence tests. Snapshots and batched 
+ * execution of the wrapped SUL are supported while the cache is bypassed.
+ * 
+ * @author Martin Tappler
+ *
+ */
+public class BoundedCacheSUL implements SnapshotableSUL<Symbol, String>, BatchQuerySUL<Symbol, String> {
+
+	private static class Node {
+		private Node parent = null;
+		private int input = -1;
+		private String output = null;
+		private Node[] children = null;
+		// least recently used order, the root is not included
+		private Node lessRecent = null;
+		private Node moreRecent = null;
+	}
+
+	private SUL<Symbol, String> actualSUL;
+	private Alphabet<Symbol> alphabet;
+	private int maxNodes;
+	private boolean bypass = false;
+
+	private Node root = new Node();
+	private int nrNodes = 0;
+	private Node leastRecent = null;
+	private Node mostRecent = null;
+
+	// state of the current query
+	private Node current = null;
+	private boolean executing = false;
+	private List<Symbol> cachedPrefix = new ArrayList<>();
+
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param actualSUL
+	 *            wrapped SUL
+	 * @param alphabet
+	 *            input alphabet
+	 * @param maxNodes
+	 *            maximum number of nodes kept in the cache after a query
+	 */
+	public BoundedCacheSUL(SUL<Symbol, String> actualSUL, Alphabet<Symbol> alphabet, int maxNodes) {
+		this.actualSUL = actualSUL;
+		this.alphabet = alphabet;
+		this.maxNodes = maxNodes;
+	}
+
+	@Override
+	public void pre() {
+		if (bypass) {
+			actualSUL.pre();
+			return;
+		}
+		current = root;
+		executing = false;
+		cachedPrefix.clear();
+	}
+
+	@Override
+	public void post() {
+		if (bypass) {
+			actualSUL.post();
+			return;
+		}
+		if (executing) {
+			misses++;
+			actualSUL.post();
+		} else
+			hits++;
+		current = null;
+		evict();
+	}
+
+	@Override
+	public String step(Symbol in) throws SULException {
+		if (bypass)
+			return actualSUL.step(in);
+		int input = alphabet.getSymbolIndex(in);
+		if (!executing) {
+			Node child = getChild(current, input);
+			if (child != null) {
+				touch(child);
+				current = child;
+				cachedPrefix.add(in);
+				return child.output;
+			}
+			startExecution();
+		}
+		String output = actualSUL.step(in);
+		Node child = getChild(current, input);
+		if (child == null)
+			child = addChild(current, input, output);
+		else if (!Objects.equals(child.output, output))
+			throw new IllegalStateException("Non-deterministic output " + output + " for cached query");
+		touch(child);
+		current = child;
+		return output;
+	}
+
+	private void startExecution() {
+		actualSUL.pre();
+		Node node = root;
+		for (Symbol in : cachedPrefix) {
+			String output = actualSUL.step(in);
+			node = getChild(node, alphabet.getSymbolIndex(in));
+			if (!Objects.equals(node.output, output))
+				throw new IllegalStateException("Non-deterministic output " + output + " for cached query");
+		}
+		executing = true;
+	}
+
+	private Node getChild(Node node, int input) {
+		return node.children == null ? null : node.children[input];
+	}
+
+	private Node addChild(Node node, int input, String output) {
+		if (node.children == null)
+			node.children = new Node[alphabet.size()];
+		Node child = new Node();
+		child.parent = node;
+		child.input = input;
+		child.output = output;
+		node.children[input] = child;
+		nrNodes++;
+		return child;
+	}
+
+	private void touch(Node node) {
+		if (node == mostRecent)
+			return;
+		unlink(node);
+		node.lessRecent = mostRecent;
+		if (mostRecent != null)
+			mostRecent.moreRecent = node;
+		mostRecent = node;
+		if (leastRecent == null)
+			leastRecent = node;
+	}
+
+	private void unlink(Node node) {
+		if (node.lessRecent != null)
+			node.lessRecent.moreRecent = node.moreRecent;
+		else if (leastRecent == node)
+			leastRecent = node.moreRecent;
+		if (node.moreRecent != null)
+			node.moreRecent.lessRecent = node.lessRecent;
+		else if (mostRecent == node)
+			mostRecent = node.lessRecent;
+		node.lessRecent = null;
+		node.moreRecent = null;
+	}
+
+	private void evict() {
+		while (nrNodes > maxNodes) {
+			Node victim = leastRecent;
+			victim.parent.children[victim.input] = null;
+			removeSubtree(victim);
+		}
+	}
+
+	private void removeSubtree(Node node) {
+		unlink(node);
+		nrNodes--;
+		if (node.children != null) {
+			for (Node child : node.children) {
+				if (child != null)
+					removeSubtree(child);
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached queries and resets the statistics, e.g. before
+	 * learning is repeated with another seed.
+	 */
+	public void clear() {
+		root = new Node();
+		nrNodes = 0;
+		leastRecent = null;
+		mostRecent = null;
+		hits = 0;
+		misses = 0;
+	}
+
+	public boolean isBypass() {
+		return bypass;
+	}
+
+	/**
+	 * Enables or disables the bypass of the cache. It must not be changed
+	 * during a query.
+	 * 
+	 * @param bypass
+	 *            true to forward all calls to the wrapped SUL
+	 */
+	public void setBypass(boolean bypass) {
+		this.bypass = bypass;
+	}
+
+	@Override
+	public boolean canSnapshot() {
+		return bypass && actualSUL instanceof SnapshotableSUL
+				&& ((SnapshotableSUL<Symbol, String>) actualSUL).canSnapshot();
+	}
+
+	@Override
+	public Object snapshot() {
+		return ((SnapshotableSUL<Symbol, String>) actualSUL).snapshot();
+	}
+
+	@Override
+	public void restore(Object snapshot) {
+		((SnapshotableSUL<Symbol, String>) actualSUL).restore(snapshot);
+	}
+
+	@Override
+	public List<Word<String>> executeBatch(List<? extends Word<Symbol>> tests,
+			List<? extends Word<String>> expectedOutputs) {
+		if (!bypass || !(actualSUL instanceof BatchQuerySUL))
+			return BatchQuerySUL.super.executeBatch(tests, expectedOutputs);
+		return ((BatchQuerySUL<Symbol, String>) actualSUL).executeBatch(tests, expectedOutputs);
+	}
+
+	@Override
+	public Alphabet<Symbol> getAlphabet() {
+		return alphabet;
+	}
+
+	/**
+	 * @return number of queries answered from the cache
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return number of queries which have been executed on the wrapped SUL
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	public int getNrNodes() {
+		return nrNodes;
+	}
+}
@@ -24,6 +24,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import javax.xml.bind.JAXBContext;
@@ -36,9 +43,12 @@ import at.tugraz.learning.suls.SULWithAlphabet;
 import at.tugraz.mutation_equiv.AccessSequenceProvider;
 import at.tugraz.mutation_equiv.LStarAccessSequenceProvider;
 import at.tugraz.mutation_equiv.RandomCoverageSelectionEQOracle;
+import at.tugraz.mutation_equiv.SULPool;
 import at.tugraz.mutation_equiv.TestCase;
 import at.tugraz.mutation_equiv.TestTrackingSUL;
 import at.tugraz.mutation_equiv.configuration.RandomCovSelEquivConfiguration;
+import at.tugraz.mutation_equiv.trace_gen.ParallelTraceGenerator;
+import at.tugraz.mutation_equiv.trace_gen.TraceGenerator;
 import de.learnlib.acex.analyzers.AcexAnalyzers;
 import de.learnlib.algorithms.kv.mealy.KearnsVaziraniMealyBuilder;
 import de.learnlib.algorithms.lstargeneric.ce.ObservationTableCEXHandlers;
@@ -46,7 +56,10 @@ import de.learnlib.algorithms.lstargeneric.closing.ClosingStrategies;
 import de.learnlib.algorithms.lstargeneric.mealy.ExtensibleLStarMealy;
 import de.learnlib.algorithms.lstargeneric.mealy.ExtensibleLStarMealyBuilder;
 import de.learnlib.algorithms.ttt.mealy.TTTLearnerMealyBuilder;
+import de.learnlib.api.EquivalenceOracle.MealyEquivalenceOracle;
 import de.learnlib.api.LearningAlgorithm.MealyLearner;
+import de.learnlib.api.MembershipOracle;
+import de.learnlib.api.SUL;
 import de.learnlib.experiments.Experiment;
 import de.learnlib.experiments.Experiment.MealyExperiment;
 import de.learnlib.logging.LearnLogger;
@@ -57,6 +70,7 @@ import de.learnlib.statistics.StatisticSUL;
 import net.automatalib.automata.transout.MealyMachine;
 import net.automatalib.util.graphs.dot.GraphDOT;
 import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
 import net.automatalib.words.impl.Symbol;
 
 /**
@@ -83,6 +97,8 @@ public class Evaluator {
 	private boolean useKV = false;
 	private boolean useRV = false;
 	private boolean shrink = false;
+	private int nrParallelSeeds = 1;
+	private int nrParallelSuiteSizes = 1;
 
 	public void setUseLstar() {
 		this.useLstar = true;
@@ -131,6 +147,13 @@ public class Evaluator {
 
 	public <T extends TestCase> void performMeasurementSeries(int startSuiteSize, int endSuiteSize, int stepSize,
 			RandomCovSelEquivConfiguration<T> config, int expectedStates) {
+		if (nrParallelSuiteSizes > 1) {
+			if (sul.canFork()) {
+				performMeasurementSeriesInParallel(startSuiteSize, endSuiteSize, stepSize, config, expectedStates);
+				return;
+			}
+			System.out.println("SUL cannot be forked, measuring suite sizes sequentially.");
+		}
 		for (int suiteSize = startSuiteSize; suiteSize <= endSuiteSize; suiteSize += stepSize) {
 			System.out.println("Measurements for suite size = " + suiteSize);
 			config.selector.updateSuiteSize(suiteSize);
@@ -157,6 +180,88 @@ public class Evaluator {
 
 	}
 
+	/**
+	 * A measurement of a suite-size sweep which has been started speculatively.
+	 */
+	private static class SuiteSizeMeasurement {
+		private int suiteSize;
+		private String fullFileName;
+		// null if the results of a previous execution are reused
+		private Future<EvalStatistics> statistics;
+
+		private SuiteSizeMeasurement(int suiteSize, String fullFileName, Future<EvalStatistics> statistics) {
+			this.suiteSize = suiteSize;
+			this.fullFileName = fullFileName;
+			this.statistics = statistics;
+		}
+	}
+
+	/**
+	 * Performs the same measurements as the sequential sweep, but speculatively
+	 * measures the next suite sizes concurrently. Every speculative
+	 * measurement uses a copy of the configuration and a fork of the SUL.
+	 * Results are persisted and checked for early stops in ascending order of
+	 * suite sizes, thus measurements of larger suite sizes still in flight are
+	 * cancelled and not persisted once a smaller suite size leads to a perfect
+	 * run.
+	 */
+	private <T extends TestCase> void performMeasurementSeriesInParallel(int startSuiteSize, int endSuiteSize,
+			int stepSize, RandomCovSelEquivConfiguration<T> config, int expectedStates) {
+		ExecutorService executor = Executors.newFixedThreadPool(nrParallelSuiteSizes, r -> {
+			Thread t = new Thread(r, "suite-size-measurement");
+			t.setDaemon(true);
+			return t;
+		});
+		LinkedList<SuiteSizeMeasurement> inFlight = new LinkedList<>();
+		int nextSuiteSize = startSuiteSize;
+		try {
+			while (nextSuiteSize <= endSuiteSize || !inFlight.isEmpty()) {
+				while (nextSuiteSize <= endSuiteSize && inFlight.size() < nrParallelSuiteSizes) {
+					inFlight.add(startMeasurement(executor, nextSuiteSize, config, expectedStates));
+					nextSuiteSize += stepSize;
+				}
+				SuiteSizeMeasurement measurement = inFlight.poll();
+				if (measurement.statistics == null) {
+					if (isEarlyStop() && perfectRun(measurement.fullFileName))
+						break;
+					else
+						continue;
+				}
+
+				EvalStatistics statistics = await(measurement.statistics);
+				System.out.println("Finished measurements for suite size = " + measurement.suiteSize);
+				try {
+					persist(statistics, measurement.fullFileName);
+				} catch (JAXBException e) {
+					System.out.println("Error writing: " + measurement.fullFileName);
+					System.out.println(e.getMessage());
+					e.printStackTrace();
+				}
+				if (isEarlyStop() && statistics.getNrCorrectRuns() == statistics.getNrRuns())
+					break;
+			}
+		} finally {
+			// measurements of larger suite sizes are not needed after an early
+			// stop, but must not continue in the background
+			shutdownAndAwaitTermination(executor);
+		}
+	}
+
+	private <T extends TestCase> SuiteSizeMeasurement startMeasurement(ExecutorService executor, int suiteSize,
+			RandomCovSelEquivConfiguration<T> config, int expectedStates) {
+		String fullFileName = deriveFileName(config.nameSuffix, config.selector.description(),
+				config.shortMutationDescription(), suiteSize);
+		if (skipIfExists && new File(fullFileName).exists())
+			return new SuiteSizeMeasurement(suiteSize, fullFileName, null);
+
+		System.out.println("Measurements for suite size = " + suiteSize);
+		RandomCovSelEquivConfiguration<T> suiteSizeConfig = config.copy();
+		suiteSizeConfig.selector.updateSuiteSize(suiteSize);
+		SUL<Symbol, String> suiteSizeSul = sul.fork();
+		return new SuiteSizeMeasurement(suiteSize, fullFileName,
+				executor.submit(() -> performSingleMeasurement(suiteSizeConfig, suiteSizeSul, expectedStates)));
+	}
+
 	private boolean perfectRun(String fullFileName) {
 		try {
 			statXMLContext = JAXBContext.newInstance(EvalStatistics.class);
@@ -193,12 +298,60 @@ public class Evaluator {
 		return fullFileName;
 	}
 
+	/**
+	 * Sets the number of seeds, which are learned with concurrently. Every
+	 * concurrently processed seed uses a copy of the configuration and a fork
+	 * of the SUL, thus the SUL needs to be forkable.
+	 * 
+	 * @param nrParallelSeeds
+	 *            number of seeds learned with concurrently, 1 means
+	 *            sequential learning
+	 */
+	public void setNrParallelSeeds(int nrParallelSeeds) {
+		this.nrParallelSeeds = nrParallelSeeds;
+	}
+
+	/**
+	 * Sets the number of suite sizes, which are measured concurrently in
+	 * measurement series. Measurements of larger suite sizes are started
+	 * speculatively and cancelled if a smaller suite size leads to an early
+	 * stop. This requires a forkable SUL.
+	 * 
+	 * @param nrParallelSuiteSizes
+	 *            number of suite sizes measured concurrently, 1 means
+	 *            sequential measurements
+	 */
+	public void setNrParallelSuiteSizes(int nrParallelSuiteSizes) {
+		this.nrParallelSuiteSizes = nrParallelSuiteSizes;
+	}
+
 	private String nameToPath(String experimentName) {
 		return experimentName.replace('.', '/');
 	}
 
 	public <T extends TestCase> EvalStatistics performSingleMeasurement(RandomCovSelEquivConfiguration<T> config,
 			int expectedStates) {
+		return performSingleMeasurement(config, sul, expectedStates);
+	}
+
+	private <T extends TestCase> EvalStatistics performSingleMeasurement(RandomCovSelEquivConfiguration<T> config,
+			SUL<Symbol, String> measuredSul, int expectedStates) {
+		List<SeedResult> seedResults = null;
+		if (nrParallelSeeds > 1 && measuredSul.canFork())
+			seedResults = learnWithSeedsInParallel(config, measuredSul, expectedStates);
+		else {
+			if (nrParallelSeeds > 1)
+				System.out.println("SUL cannot be forked, learning with seeds sequentially.");
+			seedResults = new ArrayList<>(seeds.length);
+			SulStack sulStack = new SulStack(measuredSul, sul.getAlphabet(), config);
+			for (long i : seeds) {
+				SeedResult seedResult = learnWithSeed(config, sulStack, i, expectedStates);
+				seedResults.add(seedResult);
+				if (earlyStopForIncorrect && !seedResult.correct)
+					break;
+			}
+		}
+
 		int nrCorrect = 0;
 		List<Long> stepsEq = new ArrayList<Long>(seeds.length);
 		List<Long> stepsMq = new ArrayList<Long>(seeds.length);
@@ -207,158 +360,350 @@ public class Evaluator {
 		List<Long> mutationDurations = new ArrayList<Long>(seeds.length);
 		List<Long> selectionDurations = new ArrayList<Long>(seeds.length);
 		List<Long> generationDurations = new ArrayList<Long>(seeds.length);
+		for (SeedResult seedResult : seedResults) {
+			if (seedResult.correct)
+				nrCorrect++;
+			stepsEq.add(seedResult.stepsEq);
+			stepsMq.add(seedResult.stepsMq);
+			resetsEq.add(seedResult.resetsEq);
+			resetsMq.add(seedResult.resetsMq);
+			mutationDurations.add(seedResult.mutationDuration);
+			selectionDurations.add(seedResult.selectionDuration);
+			generationDurations.add(seedResult.generationDuration);
+		}
+		System.out.println("We had " + nrCorrect + " correct and executed " + stepsEq.get(stepsEq.size() - 1)
+				+ " equiv steps in total and " + stepsMq.get(stepsEq.size() - 1) + " steps for membership queries");
+
+		return new EvalStatistics(experimentName, config.selector.description(), config.mutationDescription(),
+				config.shortMutationDescription(), config.mutantSampler.description(), config.traceGen.description(),
+				config.sizeTestSelectionSuite, config.selector.getSuiteSize(), sum(stepsEq), stepsEq, sum(stepsMq),
+				stepsMq, sum(resetsEq), resetsEq, sum(resetsMq), resetsMq, seeds.length, nrCorrect,
+				sum(mutationDurations), mutationDurations, sum(selectionDurations), selectionDurations,
+				sum(generationDurations), generationDurations);
+	}
+
+	/**
+	 * Statistics of learning with a single seed.
+	 */
+	private static class SeedResult {
+		private boolean correct = false;
+		private long stepsEq = 0;
+		private long stepsMq = 0;
+		private long resetsEq = 0;
+		private long resetsMq = 0;
+		private long mutationDuration = 0;
+		private long selectionDuration = 0;
+		private long generationDuration = 0;
+	}
+
+	/**
+	 * The decorators of a SUL and the membership oracle, which are used for
+	 * learning with one seed at a time.
+	 */
+	private static class SulStack {
+		private SUL<Symbol, String> sul;
+		private Alphabet<Symbol> alphabet;
+		private StatisticSUL<Symbol, String> statisticSul;
+		private StepCounterSUL stepCounterSUL;
+		private BoundedCacheSUL cacheSul;
+		private TestTrackingSUL trackingSul;
+		private MembershipOracle<Symbol, Word<String>> mqOracle;
+
+		private SulStack(SUL<Symbol, String> sul, Alphabet<Symbol> alphabet, RandomCovSelEquivConfiguration<?> config) {
+			this.sul = sul;
+			this.alphabet = alphabet;
+			// LearnLib's statistic SULs do not forward snapshots and batches,
+			// resets are also counted by the step counter
+			statisticSul = config.snapshotBatchSize > 0 || config.queryBatchSize > 0 ? null
+					: new ResetCounterSUL<>("membership queries", sul);
+			// we specifically do not use an unbounded cache, as SULs are simulated caches
+			// tend to grow really big if learning is repeated fifty times with
+			// random testing with long
+			// individual tests
+			// SUL<Symbol,String> cacheSul = SULCaches.createCache(alphabet,
+			// statisticSul);
+			stepCounterSUL = new StepCounterSUL(statisticSul != null ? statisticSul : sul, alphabet);
+			// a bounded cache for membership queries only, steps are counted below it
+			cacheSul = config.mqCacheSize > 0 ? new BoundedCacheSUL(stepCounterSUL, alphabet, config.mqCacheSize)
+					: null;
+			trackingSul = new TestTrackingSUL(cacheSul != null ? cacheSul : stepCounterSUL, alphabet);
+			SULOracle<Symbol, String> sulOracle = new SULOracle<>(trackingSul);
+			mqOracle = queries -> {
+				checkCancelled("Membership queries cancelled");
+				sulOracle.processQueries(queries);
+			};
+		}
+	}
 
-		StatisticSUL<Symbol, String> statisticSul = new ResetCounterSUL<>("membership queries", sul);
+	/**
+	 * Learns with all seeds concurrently. Every seed uses a copy of the
+	 * configuration and its own instance of the SUL. Results are merged in the
+	 * order of the seeds, including early stops, as if the seeds had been
+	 * processed sequentially.
+	 */
+	private <T extends TestCase> List<SeedResult> learnWithSeedsInParallel(RandomCovSelEquivConfiguration<T> config,
+			SUL<Symbol, String> measuredSul, int expectedStates) {
 		Alphabet<Symbol> alphabet = sul.getAlphabet();
-		// we specifically do not use a cache, as SULs are simulated caches
-		// tend to grow really big if learning is repeated fifty times with
-		// random testing with long
-		// individual tests
-		// SUL<Symbol,String> cacheSul = SULCaches.createCache(alphabet,
-		// statisticSul);
-		StepCounterSUL stepCounterSUL = new StepCounterSUL(statisticSul);
-		TestTrackingSUL trackingSul = new TestTrackingSUL(stepCounterSUL);
-
-		SULOracle<Symbol, String> mqOracle = new SULOracle<>(trackingSul);
+		ExecutorService executor = Executors.newFixedThreadPool(nrParallelSeeds, r -> {
+			Thread t = new Thread(r, "seed-learning");
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			List<Future<SeedResult>> futures = new ArrayList<>(seeds.length);
+			for (long i : seeds) {
+				RandomCovSelEquivConfiguration<T> seedConfig = config.copy();
+				SulStack sulStack = new SulStack(measuredSul.fork(), alphabet, seedConfig);
+				futures.add(executor.submit(() -> learnWithSeed(seedConfig, sulStack, i, expectedStates)));
+			}
+			List<SeedResult> seedResults = new ArrayList<>(seeds.length);
+			for (Future<SeedResult> future : futures) {
+				SeedResult seedResult = await(future);
+				seedResults.add(seedResult);
+				if (earlyStopForIncorrect && !seedResult.correct)
+					break;
+			}
+			return seedResults;
+		} finally {
+			// remaining seeds are not needed after an early stop, but must not
+			// continue in the background
+			shutdownAndAwaitTermination(executor);
+		}
+	}
+
+	private static void checkCancelled(String message) {
+		if (Thread.currentThread().isInterrupted())
+			throw new CancellationException(message);
+	}
+
+	/**
+	 * Interrupts running tasks and waits until all of them have stopped, also
+	 * if the calling thread is interrupted itself.
+	 */
+	private static void shutdownAndAwaitTermination(ExecutorService executor) {
+		executor.shutdownNow();
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (executor.awaitTermination(1, TimeUnit.SECONDS))
+					break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private static <R> R await(Future<R> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for learning", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new RuntimeException("Learning failed", e.getCause());
+		}
+	}
+
+	private <T extends TestCase> SeedResult learnWithSeed(RandomCovSelEquivConfiguration<T> config, SulStack sulStack,
+			long i, int expectedStates) {
+		// speculative measurements of a suite-size sweep and seeds after an
+		// early stop are cancelled by interrupts
+		checkCancelled("Learning cancelled before seed " + i);
+		SeedResult seedResult = new SeedResult();
+		Alphabet<Symbol> alphabet = sulStack.alphabet;
+		StatisticSUL<Symbol, String> statisticSul = sulStack.statisticSul;
+		StepCounterSUL stepCounterSUL = sulStack.stepCounterSUL;
+		BoundedCacheSUL cacheSul = sulStack.cacheSul;
+		TestTrackingSUL trackingSul = sulStack.trackingSul;
+		MembershipOracle<Symbol, Word<String>> mqOracle = sulStack.mqOracle;
 		// create random walks equivalence test
 		RandomCoverageSelectionEQOracle<T> eqOracle = null;
 		MealyExperiment<Symbol, String> experiment = null;
 		MealyMachine<?, Symbol, ?, String> result = null;
 		MealyLearner<Symbol, String> learner = null;
 
-		for (long i : seeds) {
-			long currentSeed = (long) i;
-			config.updateRandomSeed(currentSeed);
-			boolean incorrectRun = false;
-			while (true) {
-				try {
-					eqOracle = new RandomCoverageSelectionEQOracle<T>(trackingSul, sul.getAlphabet(),
-							config.mutationOperators, config.sizeTestSelectionSuite, config.reuseRemaining,
-							config.selector, config.traceGen, config.mutantSampler);
-					config.selector.updateInitialSuiteSizes(new LinkedList<>(config.initialSuiteSizes));
-					eqOracle.setMutantGenerationSampler(config.mutantGenerationSampler);
-					eqOracle.setKeepExecutedTests(config.keepExecutedTests);
-
-					AccessSequenceProvider accSeqProvider = null;
-					if (useLstar)
-						learner = new ExtensibleLStarMealyBuilder<Symbol, String>().withAlphabet(alphabet)
-								.withOracle(mqOracle).create();
-					else if (useKV)
-						learner = new KearnsVaziraniMealyBuilder<Symbol, String>().withAlphabet(alphabet)
-								.withOracle(mqOracle).withCounterexampleAnalyzer(AcexAnalyzers.BINARY_SEARCH).create();
-					else if (useRV) {
-						ExtensibleLStarMealy<Symbol, String> lstar = new ExtensibleLStarMealy<>(alphabet, mqOracle,
-								Collections.emptyList(), ObservationTableCEXHandlers.RIVEST_SCHAPIRE,
-								ClosingStrategies.CLOSE_SHORTEST);
-						// accSeqProvider = new
-						// LStarAccessSequenceProvider(lstar);
-						learner = lstar;
-					} else
-						learner = new TTTLearnerMealyBuilder<Symbol, String>().withAlphabet(alphabet) // input
-																										// alphabet
-								.withOracle(mqOracle) // membership oracle
-								.create();
+		long currentSeed = (long) i;
+		config.updateRandomSeed(currentSeed);
+		TraceGenerator traceGen = config.traceGen;
+		ForkJoinPool generationPool = null;
+		if (config.nrGenerationThreads > 1) {
+			if (traceGen.supportsParallelGeneration()) {
+				generationPool = new ForkJoinPool(config.nrGenerationThreads);
+				traceGen = new ParallelTraceGenerator(traceGen, generationPool);
+				traceGen.updateRandomSeed(currentSeed);
+			} else
+				System.out.println(traceGen.description() + " cannot generate in parallel, generating tests sequentially.");
+		}
+		while (true) {
+			try {
+				eqOracle = new RandomCoverageSelectionEQOracle<T>(trackingSul, alphabet, config.mutationOperators,
+						config.sizeTestSelectionSuite, config.reuseRemaining, config.selector, traceGen,
+						config.mutantSampler);
+				config.selector.updateInitialSuiteSizes(new LinkedList<>(config.initialSuiteSizes));
+				eqOracle.setMutantGenerationSampler(config.mutantGenerationSampler);
+				eqOracle.setKeepExecutedTests(config.keepExecutedTests);
+				eqOracle.setPipelineChunkSize(config.pipelineChunkSize);
+				eqOracle.setSpeculativePreparation(config.speculativePreparation);
+				eqOracle.setSnapshotBatchSize(config.snapshotBatchSize);
+				eqOracle.setQueryBatchSize(config.queryBatchSize);
+				if (config.nrSulInstances > 1) {
+					if (sulStack.sul.canFork())
+						eqOracle.setSulPool(new SULPool(sulStack.sul::fork, config.nrSulInstances));
+					else
+						System.out.println("SUL cannot be forked, executing tests sequentially.");
+				}
+
+				AccessSequenceProvider accSeqProvider = null;
+				if (useLstar)
+					learner = new ExtensibleLStarMealyBuilder<Symbol, String>().withAlphabet(alphabet)
+							.withOracle(mqOracle).create();
+				else if (useKV)
+					learner = new KearnsVaziraniMealyBuilder<Symbol, String>().withAlphabet(alphabet)
+							.withOracle(mqOracle).withCounterexampleAnalyzer(AcexAnalyzers.BINARY_SEARCH).create();
+				else if (useRV) {
+					ExtensibleLStarMealy<Symbol, String> lstar = new ExtensibleLStarMealy<>(alphabet, mqOracle,
+							Collections.emptyList(), ObservationTableCEXHandlers.RIVEST_SCHAPIRE,
+							ClosingStrategies.CLOSE_SHORTEST);
+					// accSeqProvider = new
+					// LStarAccessSequenceProvider(lstar);
+					learner = lstar;
+				} else
+					learner = new TTTLearnerMealyBuilder<Symbol, String>().withAlphabet(alphabet) // input
+																									// alphabet
+							.withOracle(mqOracle) // membership oracle
+							.create();
+				if (cacheSul != null) {
+					cacheSul.clear();
+					experiment = new MealyExperiment<>(learner, bypassCache(eqOracle, cacheSul), alphabet);
+				} else
 					experiment = new MealyExperiment<>(learner, eqOracle, alphabet);
-					eqOracle.setAccSeqProvider(accSeqProvider);
-					if (!verbose)
-						LearnLogger.getLogger(Experiment.class).setLevel(Level.WARNING);
-					experiment.run();
-					trackingSul.clear();
-					// get learned model
-					result = experiment.getFinalHypothesis();
-					stepsEq.add(eqOracle.getNrActualTestSteps());
-					resetsEq.add((long) eqOracle.getNrExecutedTests());
-					stepsMq.add(stepCounterSUL.getStepCount() - eqOracle.getNrActualTestSteps());
-					resetsMq.add((long) (stepCounterSUL.getResets() - eqOracle.getNrExecutedTests()));
-					System.out.println("Resets mq: " + (stepCounterSUL.getResets() - eqOracle.getNrExecutedTests()));
-					System.out.println("Resets eq: " + eqOracle.getNrExecutedTests());
-					mutationDurations.add(eqOracle.getMutationDuration());
-					selectionDurations.add(eqOracle.getEvalAndSelDuration());
-					generationDurations.add(eqOracle.getGenerationDuration());
-					System.out.println("Executed " + eqOracle.getNrActualTestSteps() + " eq steps.");
+				eqOracle.setAccSeqProvider(accSeqProvider);
+				if (!verbose)
+					LearnLogger.getLogger(Experiment.class).setLevel(Level.WARNING);
+				experiment.run();
+				trackingSul.clear();
+				// get learned model
+				result = experiment.getFinalHypothesis();
+				seedResult.stepsEq = eqOracle.getNrActualTestSteps();
+				seedResult.resetsEq = eqOracle.getNrExecutedTests();
+				// with a pool, tests are not executed on the counting SUL
+				long eqStepsOnSul = eqOracle.getSulPool() == null ? eqOracle.getNrActualTestSteps() : 0;
+				long eqResetsOnSul = eqOracle.getNrActualResets();
+				seedResult.stepsMq = stepCounterSUL.getStepCount() - eqStepsOnSul;
+				seedResult.resetsMq = stepCounterSUL.getResets() - eqResetsOnSul;
+				System.out.println("Resets mq: " + (stepCounterSUL.getResets() - eqResetsOnSul));
+				System.out.println("Resets eq: " + eqOracle.getNrExecutedTests());
+				seedResult.mutationDuration = eqOracle.getMutationDuration();
+				seedResult.selectionDuration = eqOracle.getEvalAndSelDuration();
+				seedResult.generationDuration = eqOracle.getGenerationDuration();
+				System.out.println("Executed " + eqOracle.getNrActualTestSteps() + " eq steps.");
+				if (config.snapshotBatchSize > 0)
+					System.out.println("Saved " + stepCounterSUL.getSavedSteps() + " steps with "
+							+ stepCounterSUL.getRestores() + " restores.");
+				if (cacheSul != null)
+					System.out.println("MQ cache: " + cacheSul.getHits() + " hits, " + cacheSul.getMisses()
+							+ " misses, " + cacheSul.getNrNodes() + " nodes.");
+				resetCounts(eqOracle, stepCounterSUL);
+				break;
+				// Exceptions are thrown by TTT in latest Maven-release of
+				// LearnLib
+				// probably fixed on github, but I rather ignore such an
+				// exception and work with Maven
+				// TTT is not used for the experiments anyway
+			} catch (Exception e) {
+				int stackI = -1;
+				while (e.getStackTrace()[++stackI].getClassName().startsWith("java"))
+					;
+				if (e.getStackTrace()[stackI].getClassName().startsWith("de.learnlib")) {
 					resetCounts(eqOracle, stepCounterSUL);
-					break;
-					// Exceptions are thrown by TTT in latest Maven-release of
-					// LearnLib
-					// probably fixed on github, but I rather ignore such an
-					// exception and work with Maven
-					// TTT is not used for the experiments anyway
-				} catch (Exception e) {
-					int stackI = -1;
-					while (e.getStackTrace()[++stackI].getClassName().startsWith("java"))
-						;
-					if (e.getStackTrace()[stackI].getClassName().startsWith("de.learnlib")) {
-						resetCounts(eqOracle, stepCounterSUL);
-						System.out.println("Caught exception with seed " + currentSeed);
-						System.out.println(e.getMessage());
-						if (e.getCause() != null) {
-							System.out.println(e.getCause().getMessage());
-							e.getCause().printStackTrace();
-						}
-						e.printStackTrace();
-						currentSeed++;
-					} else
-						throw e;
+					System.out.println("Caught exception with seed " + currentSeed);
+					System.out.println(e.getMessage());
+					if (e.getCause() != null) {
+						System.out.println(e.getCause().getMessage());
+						e.getCause().printStackTrace();
+					}
+					e.printStackTrace();
+					currentSeed++;
+				} else {
+					if (generationPool != null)
+						generationPool.shutdownNow();
+					throw e;
 				}
 			}
-			// report results
-			System.out.println("-------------------------------------------------------");
-			// because of minimality of the result we know that we learned the
-			// correct model by checking the number of states
-			// //sanityCheckOracle.findCounterExample(result, alphabet) == null)
-			if (result.size() == expectedStates) {
-				nrCorrect++;
-				System.out.println("We learned the correct model for " + i);
-				System.out.println();
-			} else {
-				System.out.println("We did not learn the correct model for " + i);
-				incorrectRun = true;
-			}
-			if (verbose) {
-				System.out.println("Actual steps executed: " + eqOracle.getNrActualTestSteps());
-				// profiling
-				System.out.println(SimpleProfiler.getResults());
-
-				// learning statistics
-				System.out.println(experiment.getRounds().getSummary());
+		}
+		if (generationPool != null)
+			generationPool.shutdown();
+		// report results
+		System.out.println("-------------------------------------------------------");
+		// because of minimality of the result we know that we learned the
+		// correct model by checking the number of states
+		// //sanityCheckOracle.findCounterExample(result, alphabet) == null)
+		if (result.size() == expectedStates) {
+			seedResult.correct = true;
+			System.out.println("We learned the correct model for " + i);
+			System.out.println();
+		} else {
+			System.out.println("We did not learn the correct model for " + i);
+		}
+		if (verbose) {
+			System.out.println("Actual steps executed: " + eqOracle.getNrActualTestSteps());
+			// profiling
+			System.out.println(SimpleProfiler.getResults());
+
+			// learning statistics
+			System.out.println(experiment.getRounds().getSummary());
+			if (statisticSul != null)
 				System.out.println(statisticSul.getStatisticalData().getSummary());
-				// model statistics
-				System.out.println("States: " + result.size());
-			}
-			if (earlyStopForIncorrect && incorrectRun)
-				break;
-			// try{
-			// File outputFile = new File("SUL_mm.dot");
-			// PrintStream psDotFile = new PrintStream(outputFile);
-			// GraphDOT.write(result, alphabet, psDotFile); // may throw
-			// IOException!
-			// }catch(Exception e){
-			// }
+			// model statistics
+			System.out.println("States: " + result.size());
 		}
-		System.out.println("We had " + nrCorrect + " correct and executed " + stepsEq.get(stepsEq.size() - 1)
-				+ " equiv steps in total and " + stepsMq.get(stepsEq.size() - 1) + " steps for membership queries");
-
-		return new EvalStatistics(experimentName, config.selector.description(), config.mutationDescription(),
-				config.shortMutationDescription(), config.mutantSampler.description(), config.traceGen.description(),
-				config.sizeTestSelectionSuite, config.selector.getSuiteSize(), sum(stepsEq), stepsEq, sum(stepsMq),
-				stepsMq, sum(resetsEq), resetsEq, sum(resetsMq), resetsMq, seeds.length, nrCorrect,
-				sum(mutationDurations), mutationDurations, sum(selectionDurations), selectionDurations,
-				sum(generationDurations), generationDurations);
+		// try{
+		// File outputFile = new File("SUL_mm.dot");
+		// PrintStream psDotFile = new PrintStream(outputFile);
+		// GraphDOT.write(result, alphabet, psDotFile); // may throw
+		// IOException!
+		// }catch(Exception e){
+		// }
+		return seedResult;
 	}
 
 	private long sum(List<Long> longs) {
 		return longs.stream().reduce(0l, (x, y) -> x + y);
 	}
 
+	/**
+	 * Equivalence tests are executed without cache, so that only membership 
+	 * queries are cached.
+	 */
+	private static MealyEquivalenceOracle<Symbol, String> bypassCache(MealyEquivalenceOracle<Symbol, String> eqOracle,
+			BoundedCacheSUL cacheSul) {
+		return (hypothesis, inputs) -> {
+			cacheSul.setBypass(true);
+			try {
+				return eqOracle.findCounterExample(hypothesis, inputs);
+			} finally {
+				cacheSul.setBypass(false);
+			}
+		};
+	}
+
 	private <T extends TestCase> void resetCounts(RandomCoverageSelectionEQOracle<T> eqOracle,
 			StepCounterSUL stepCounterSUL) {
 		eqOracle.resetEvalAndSelDuration();
 		eqOracle.resetGenerationDuration();
 		eqOracle.resetMutationDuration();
 		eqOracle.resetNrActualTestSteps();
+		eqOracle.resetNrActualResets();
 		eqOracle.resetNrExecutedTests();
 		stepCounterSUL.resetStepCount();
 		stepCounterSUL.setResets(0);
+		stepCounterSUL.resetSavedSteps();
 	}
 
 	public void setUseRV() {
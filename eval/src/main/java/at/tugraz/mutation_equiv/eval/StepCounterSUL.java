@@ -17,8 +17,16 @@
  *******************************************************************************/
 package at.tugraz.mutation_equiv.eval;
 
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import at.tugraz.learning.suls.BatchQuerySUL;
+import at.tugraz.learning.suls.SnapshotableSUL;
 import de.learnlib.api.SUL;
 import de.learnlib.api.SULException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
 import net.automatalib.words.impl.Symbol;
 
 /**
@@ -28,20 +36,32 @@ import net.automatalib.words.impl.Symbol;
  * I actually could have used LearnLib's SymbolCounterSUL combined with ResetCounterSUL, but
  * I was not aware of these classes.
  * 
+ * If the wrapped SUL supports snapshots, this class forwards them and counts 
+ * the steps saved by restoring snapshots instead of resetting and replaying 
+ * prefixes. Restores are not counted as resets. Likewise, batches of tests 
+ * are forwarded to SULs supporting them and counted based on the returned 
+ * outputs.
+ * 
  * @author Martin Tappler
  *
  */
-public class StepCounterSUL implements SUL<Symbol,String>{
+public class StepCounterSUL implements SnapshotableSUL<Symbol,String>, BatchQuerySUL<Symbol,String>{
 	private SUL<Symbol, String> actualSUL;
+	private Alphabet<Symbol> alphabet;
 	private long stepCount = 0;
 	private int resets = 0;
+	private long savedSteps = 0;
+	private int restores = 0;
+	private int depth = 0;
 
-	public StepCounterSUL(SUL<Symbol, String> actualSUL){
+	public StepCounterSUL(SUL<Symbol, String> actualSUL, Alphabet<Symbol> alphabet){
 		this.actualSUL = actualSUL;
+		this.alphabet = alphabet;
 	}
 	@Override
 	public void pre() {
 		setResets(getResets() + 1);
+		depth = 0;
 		actualSUL.pre();
 	}
 
@@ -53,9 +73,44 @@ public class StepCounterSUL implements SUL<Symbol,String>{
 	@Override
 	public String step(Symbol in) throws SULException {
 		stepCount++;
+		depth++;
 		return actualSUL.step(in);
 	}
 
+	@Override
+	public boolean canSnapshot() {
+		return actualSUL instanceof SnapshotableSUL && 
+				((SnapshotableSUL<Symbol, String>) actualSUL).canSnapshot();
+	}
+	@Override
+	public Object snapshot() {
+		return Pair.of(((SnapshotableSUL<Symbol, String>) actualSUL).snapshot(), depth);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public void restore(Object snapshot) {
+		Pair<Object,Integer> actualSnapshot = (Pair<Object,Integer>) snapshot;
+		((SnapshotableSUL<Symbol, String>) actualSUL).restore(actualSnapshot.getLeft());
+		depth = actualSnapshot.getRight();
+		savedSteps += depth;
+		restores++;
+	}
+	@Override
+	public List<Word<String>> executeBatch(List<? extends Word<Symbol>> tests,
+			List<? extends Word<String>> expectedOutputs) {
+		if(!(actualSUL instanceof BatchQuerySUL))
+			return BatchQuerySUL.super.executeBatch(tests, expectedOutputs);
+		List<Word<String>> outputs = ((BatchQuerySUL<Symbol, String>) actualSUL).executeBatch(tests, expectedOutputs);
+		setResets(getResets() + outputs.size());
+		for(Word<String> output : outputs)
+			stepCount += output.size();
+		return outputs;
+	}
+	@Override
+	public Alphabet<Symbol> getAlphabet() {
+		return alphabet;
+	}
+
 	public long getStepCount() {
 		return stepCount;
 	}
@@ -68,5 +123,21 @@ public class StepCounterSUL implements SUL<Symbol,String>{
 	public void setResets(int resets) {
 		this.resets = resets;
 	}
+	/**
+	 * Returns the number of steps which did not have to be executed, because 
+	 * tests continued from snapshots.
+	 * 
+	 * @return number of saved steps
+	 */
+	public long getSavedSteps() {
+		return savedSteps;
+	}
+	public int getRestores() {
+		return restores;
+	}
+	public void resetSavedSteps() {
+		this.savedSteps = 0;
+		this.restores = 0;
+	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.mutation_equiv.eval;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import at.tugraz.learning.suls.MealyDotFileSul;
+import at.tugraz.mutation_equiv.MutationTestCase;
+import at.tugraz.mutation_equiv.mutation.ChangeOutputOperator;
+import at.tugraz.mutation_equiv.mutation.ChangeTargetOperator;
+import at.tugraz.mutation_equiv.mutation.MutationOperator;
+import at.tugraz.mutation_equiv.mutation.SplitStateOperator;
+import at.tugraz.mutation_equiv.mutation.sampling.MutantProducer;
+import at.tugraz.mutation_equiv.test_selection.MutationSuiteBasedSelector;
+import at.tugraz.mutation_equiv.trace_gen.RandomWordGenerator;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.automata.transout.impl.FastMealy;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.impl.Symbol;
+
+/**
+ * Checks that optimised evaluation modes of mutation analysis compute the same
+ * mutants killed by each test as the sequential evaluation based on
+ * <code>computeOutputAndKillInfo</code>. Checked modes are the NFA-based
+ * evaluation executed in parallel and the trie-based evaluation. Bundled models
+ * of MQTT brokers are taken as origin of mutants (playing the role of
+ * hypotheses) and tests are random words.
+ * 
+ * @author Martin Tappler
+ *
+ */
+@RunWith(Parameterized.class)
+public class EvaluationConsistencyTest {
+
+	private static final int NR_TESTS = 2000;
+	private static final int MAX_TEST_LENGTH = 50;
+	private static final long SEED = 1L;
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> models() {
+		return Arrays.asList(new Object[][] { 
+			{ "src/main/resources/mqtt/ActiveMQ/non_clean.dot" },
+			{ "src/main/resources/mqtt/VerneMQ/two_client.dot" },
+			{ "src/main/resources/mqtt/emqtt/two_client_same_id.dot" },
+			{ "src/main/resources/mqtt/hbmqtt/single_client.dot" },
+			{ "src/main/resources/mqtt/mosquitto/two_client_will_retain.dot" } });
+	}
+
+	private String model;
+	private FastMealy<Symbol, String> hypothesis;
+	private List<MutantProducer> mutants;
+	private List<List<Symbol>> tests;
+
+	public EvaluationConsistencyTest(String model) {
+		this.model = model;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setUp() {
+		MealyDotFileSul sul = new MealyDotFileSul(model);
+		Alphabet<Symbol> alphabet = sul.getAlphabet();
+		hypothesis = MutationOperator.copyMealyMachine(sul.getMealy(), alphabet, Collections.emptyList())
+				.getLeft();
+		mutants = new ArrayList<>();
+		mutants.addAll(new SplitStateOperator(alphabet, 1).createMutants(hypothesis).getMutants());
+		mutants.addAll(new ChangeOutputOperator(alphabet).createMutants(hypothesis).getMutants());
+
+		RandomWordGenerator traceGen = new RandomWordGenerator(alphabet, new Random(SEED), MAX_TEST_LENGTH);
+		tests = traceGen.generateTraces(NR_TESTS,
+				(MealyMachine<Object, Symbol, ?, String>) (MealyMachine<?, Symbol, ?, String>) hypothesis, mutants);
+	}
+
+	@Test
+	public void parallelNfaEvaluationIsConsistent() {
+		// change-target mutants need to be executed, thus NFA-based evaluation
+		// is not possible for them
+		assertConsistent("parallel NFA", mutants, sel -> sel.setUseNfaBasedOptimization(true));
+	}
+
+	@Test
+	public void trieEvaluationIsConsistent() {
+		List<MutantProducer> mutantsInclTarget = new ArrayList<>(mutants);
+		mutantsInclTarget.addAll(new ChangeTargetOperator(hypothesis.getInputAlphabet())
+				.createMutants(hypothesis).getMutants());
+		assertConsistent("trie", mutantsInclTarget, sel -> sel.setUseTrieBasedEvaluation(true));
+	}
+
+	private void assertConsistent(String mode, List<MutantProducer> mutants,
+			Consumer<MutationSuiteBasedSelector> configure) {
+		Alphabet<Symbol> alphabet = hypothesis.getInputAlphabet();
+		MutationSuiteBasedSelector sequential = new MutationSuiteBasedSelector(0, alphabet, false);
+		MutationSuiteBasedSelector optimised = new MutationSuiteBasedSelector(0, alphabet, false);
+		configure.accept(optimised);
+		sequential.setCurrentMachines(mutants, hypothesis, Collections.emptyList());
+		optimised.setCurrentMachines(mutants, hypothesis, Collections.emptyList());
+		assumeTrue(mode + " evaluation not possible for " + model,
+				!optimised.isUseNfaBasedOptimization() || optimised.isNfaBasedEvalPossible());
+
+		List<MutationTestCase> optimisedResults = optimised.evaluate(tests);
+		for (int i = 0; i < tests.size(); i++) {
+			MutationTestCase seqResult = sequential.evaluate(Collections.singletonList(tests.get(i))).get(0);
+			assertEquals(mode + " evaluation of " + tests.get(i), killedColumns(seqResult),
+					killedColumns(optimisedResults.get(i)));
+		}
+	}
+
+	private static List<Integer> killedColumns(MutationTestCase test) {
+		List<Integer> columns = new ArrayList<>();
+		test.killedMutants.forEach(columns::add);
+		return columns;
+	}
+}
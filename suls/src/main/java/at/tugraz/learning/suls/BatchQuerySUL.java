@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.learning.suls;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * An extension of SULs which execute batches of tests at once. This allows
+ * SULs communicating over sockets or pipes to send many inputs per message
+ * instead of performing a round trip per input.
+ * 
+ * Every test of a batch starts in the initial state. Since tests are used 
+ * for finding counterexamples, execution stops at the first output which 
+ * differs from the expected output, so that the outputs of the first failing
+ * test end with the differing output and no further tests of the batch are 
+ * executed, or at least no outputs are returned for them. 
+ * 
+ * The default implementation executes the tests one after the other via 
+ * <code>pre</code>, <code>step</code> and <code>post</code>.
+ * 
+ * @author Martin Tappler
+ *
+ * @param <I> type of inputs
+ * @param <O> type of outputs
+ */
+public interface BatchQuerySUL<I,O> extends SULWithAlphabet<I, O>{
+	
+	/**
+	 * Executes a batch of tests.
+	 * 
+	 * @param tests tests to execute
+	 * @param expectedOutputs expected outputs, one for each test
+	 * @return the outputs of the executed tests in order, which are only 
+	 * 		   fewer than the tests if the last returned output differs from
+	 * 		   the expected output
+	 */
+	public default List<Word<O>> executeBatch(List<? extends Word<I>> tests, 
+			List<? extends Word<O>> expectedOutputs){
+		List<Word<O>> outputs = new ArrayList<>(tests.size());
+		for(int i = 0; i < tests.size(); i++){
+			Word<I> test = tests.get(i);
+			Word<O> expectedOutput = expectedOutputs.get(i);
+			WordBuilder<O> outputBuilder = new WordBuilder<>(test.size());
+			boolean differs = false;
+			pre();
+			try{
+				for(int j = 0; j < test.size() && !differs; j++){
+					O output = step(test.getSymbol(j));
+					outputBuilder.add(output);
+					differs = !Objects.equals(output, expectedOutput.getSymbol(j));
+				}
+			} finally {
+				post();
+			}
+			outputs.add(outputBuilder.toWord());
+			if(differs)
+				break;
+		}
+		return outputs;
+	}
+}
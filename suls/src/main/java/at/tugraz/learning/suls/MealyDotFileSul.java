@@ -17,10 +17,16 @@
  *******************************************************************************/
 package at.tugraz.learning.suls;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import de.learnlib.api.SULException;
-import de.learnlib.simulator.sul.MealySimulatorSUL;
 import net.automatalib.automata.transout.MealyMachine;
 import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
 import net.automatalib.words.impl.FastAlphabet;
 import net.automatalib.words.impl.Symbol;
 
@@ -28,16 +34,28 @@ import net.automatalib.words.impl.Symbol;
  * A simulated Mealy machine read from a GraphViz-dot-File.
  * It is assumed to be given in the format generated by LearnLib/AutomataLib. 
  * 
+ * For fast simulation, the parsed machine is compiled into flat arrays of 
+ * successor states and output ids indexed by <code>state * |I| + input</code>,
+ * where the input index is the id of the input symbol. Steps thus neither 
+ * allocate objects nor access the machine through generic interfaces.
+ * 
  * @author Martin Tappler
  *
  */
-public class MealyDotFileSul implements SULWithAlphabet<Symbol, String> {
+public class MealyDotFileSul implements SnapshotableSUL<Symbol, String>, BatchQuerySUL<Symbol, String> {
 	private Alphabet<Symbol> alphabet = new FastAlphabet<>();
-	private MealySimulatorSUL<Symbol, String> simulatorSul = null;
+	private CompiledMachine compiled = null;
 	private MealyMachine<?, Symbol, ?, String> mealy = null;
+	// index of the current state, -1 after undefined transitions
+	private int currentState = -1;
 	public MealyDotFileSul(String dotFileName) {
 		mealy = parse(dotFileName);
-		simulatorSul = new MealySimulatorSUL<>(getMealy());
+		compiled = compile(getMealy(), alphabet);
+	}
+	private MealyDotFileSul(MealyDotFileSul original) {
+		alphabet = original.alphabet;
+		mealy = original.mealy;
+		compiled = original.compiled;
 	}
 	private MealyMachine<?,Symbol,?,String> parse(String dotFileName) {
 		DotMealyMachineParser parser = new DotMealyMachineParser();
@@ -45,19 +63,166 @@ public class MealyDotFileSul implements SULWithAlphabet<Symbol, String> {
 		alphabet.addAll(parser.getAlphabet());
 		return parseResult;
 	}
+
+	/**
+	 * Immutable array representation of the simulated machine, which is 
+	 * shared by forked instances. Undefined transitions lead to state -1 and
+	 * produce <code>null</code>, like in LearnLib's MealySimulatorSUL.
+	 */
+	private static final class CompiledMachine {
+		private final Symbol[] inputs;
+		private final int nrInputs;
+		private final int initialState;
+		private final int[] successors;
+		private final int[] outputs;
+		private final String[] outputSymbols;
+
+		private CompiledMachine(Symbol[] inputs, int initialState, int[] successors, int[] outputs,
+				String[] outputSymbols) {
+			this.inputs = inputs;
+			this.nrInputs = inputs.length;
+			this.initialState = initialState;
+			this.successors = successors;
+			this.outputs = outputs;
+			this.outputSymbols = outputSymbols;
+		}
+
+		private int inputIndex(Symbol input) {
+			// ids are assigned by the parser, other symbols are looked up
+			int id = input.getId();
+			if (id >= 0 && id < nrInputs && inputs[id] == input)
+				return id;
+			for (int i = 0; i < nrInputs; i++) {
+				if (inputs[i].equals(input))
+					return i;
+			}
+			return -1;
+		}
+	}
+
+	private static <S, T> CompiledMachine compile(MealyMachine<S, Symbol, T, String> mealy, 
+			Alphabet<Symbol> alphabet) {
+		Symbol[] inputs = alphabet.toArray(new Symbol[alphabet.size()]);
+		List<S> states = new ArrayList<>(mealy.getStates());
+		Map<S, Integer> stateIndexes = new HashMap<>();
+		for (int i = 0; i < states.size(); i++)
+			stateIndexes.put(states.get(i), i);
+		int[] successors = new int[states.size() * inputs.length];
+		int[] outputs = new int[states.size() * inputs.length];
+		List<String> outputSymbols = new ArrayList<>();
+		Map<String, Integer> outputIds = new HashMap<>();
+		for (int s = 0; s < states.size(); s++) {
+			for (int i = 0; i < inputs.length; i++) {
+				int transId = s * inputs.length + i;
+				T trans = mealy.getTransition(states.get(s), inputs[i]);
+				if (trans == null) {
+					successors[transId] = -1;
+					outputs[transId] = -1;
+					continue;
+				}
+				successors[transId] = stateIndexes.get(mealy.getSuccessor(trans));
+				String output = mealy.getTransitionOutput(trans);
+				Integer outputId = outputIds.get(output);
+				if (outputId == null) {
+					outputId = outputSymbols.size();
+					outputSymbols.add(output);
+					outputIds.put(output, outputId);
+				}
+				outputs[transId] = outputId;
+			}
+		}
+		return new CompiledMachine(inputs, stateIndexes.get(mealy.getInitialState()), successors, outputs,
+				outputSymbols.toArray(new String[outputSymbols.size()]));
+	}
+
 	@Override
 	public void post() {
-		simulatorSul.post();
 	}
 
 	@Override
 	public void pre() {
-		simulatorSul.pre();
+		currentState = compiled.initialState;
 	}
 
 	@Override
 	public String step(Symbol input) throws SULException {
-		return simulatorSul.step(input);
+		if (currentState < 0)
+			return null;
+		int inputIndex = compiled.inputIndex(input);
+		if (inputIndex < 0) {
+			currentState = -1;
+			return null;
+		}
+		int transId = currentState * compiled.nrInputs + inputIndex;
+		currentState = compiled.successors[transId];
+		int outputId = compiled.outputs[transId];
+		return outputId < 0 ? null : compiled.outputSymbols[outputId];
+	}
+
+	/**
+	 * Executes tests directly on the arrays of the compiled machine, keeping 
+	 * the current state in a local variable. Outputs are compared by reference 
+	 * first, as they are interned when the machine is compiled.
+	 */
+	@Override
+	public List<Word<String>> executeBatch(List<? extends Word<Symbol>> tests,
+			List<? extends Word<String>> expectedOutputs) {
+		CompiledMachine machine = compiled;
+		List<Word<String>> outputs = new ArrayList<>(tests.size());
+		for (int i = 0; i < tests.size(); i++) {
+			Word<Symbol> test = tests.get(i);
+			Word<String> expectedOutput = expectedOutputs.get(i);
+			WordBuilder<String> outputBuilder = new WordBuilder<>(test.size());
+			boolean differs = false;
+			int state = machine.initialState;
+			for (int j = 0; j < test.size() && !differs; j++) {
+				String output = null;
+				int inputIndex = state < 0 ? -1 : machine.inputIndex(test.getSymbol(j));
+				if (inputIndex < 0)
+					state = -1;
+				else {
+					int transId = state * machine.nrInputs + inputIndex;
+					state = machine.successors[transId];
+					int outputId = machine.outputs[transId];
+					output = outputId < 0 ? null : machine.outputSymbols[outputId];
+				}
+				outputBuilder.add(output);
+				String expected = expectedOutput.getSymbol(j);
+				differs = output != expected && (output == null || !output.equals(expected));
+			}
+			outputs.add(outputBuilder.toWord());
+			if (differs)
+				break;
+		}
+		return outputs;
+	}
+
+	/**
+	 * The snapshot is the index of the current state. 
+	 */
+	@Override
+	public Object snapshot() {
+		return currentState;
+	}
+
+	@Override
+	public void restore(Object snapshot) {
+		currentState = (Integer) snapshot;
+	}
+
+	@Override
+	public boolean canFork() {
+		return true;
+	}
+
+	/**
+	 * Creates an independent instance simulating the same machine, which 
+	 * shares the (read-only) machine, its compiled representation and the 
+	 * alphabet with this instance.
+	 */
+	@Override
+	public MealyDotFileSul fork() {
+		return new MealyDotFileSul(this);
 	}
 
 	@Override
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * mut-learn
+ * Copyright (C) 2016 TU Graz
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package at.tugraz.learning.suls;
+
+/**
+ * An extension of SULs which can save their current state and later continue
+ * from a saved state instead of being reset, e.g. simulated SULs or SULs 
+ * running in virtual machines supporting checkpoints. This allows executing 
+ * tests with common prefixes without executing the prefixes repeatedly. 
+ * 
+ * Snapshots are opaque objects which may only be passed to <code>restore</code>
+ * of the same SUL.
+ * 
+ * @author Martin Tappler
+ *
+ * @param <I> type of inputs
+ * @param <O> type of outputs
+ */
+public interface SnapshotableSUL<I,O> extends SULWithAlphabet<I, O>{
+	/**
+	 * Returns true if snapshots are supported. This may be false for wrappers 
+	 * of SULs which do not support snapshots.
+	 * 
+	 * @return true if <code>snapshot</code> and <code>restore</code> may be called
+	 */
+	default boolean canSnapshot(){
+		return true;
+	}
+	
+	/**
+	 * Saves the current state. It may only be called during a test, i.e. 
+	 * between <code>pre</code> or <code>restore</code> and <code>post</code>.
+	 * 
+	 * @return a snapshot of the current state
+	 */
+	public Object snapshot();
+	
+	/**
+	 * Starts a test in the state saved by the given snapshot. It is called
+	 * instead of <code>pre</code>, and the test is ended by <code>post</code>
+	 * as usual.
+	 * 
+	 * @param snapshot a snapshot created by this SUL
+	 */
+	public void restore(Object snapshot);
+}